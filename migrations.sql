@@ -0,0 +1,124 @@
+--Schema changes for existing databases, apply in order
+
+--Only one appointment per doctor and date, the earliest booking of a slot is kept
+--Later double bookings are moved to appointments_duplicates first, their owners have to be offered another date by hand
+CREATE TABLE IF NOT EXISTS public.appointments_duplicates AS SELECT * FROM public.appointments WITH NO DATA;
+INSERT INTO public.appointments_duplicates SELECT a.* FROM public.appointments a WHERE EXISTS (SELECT 1 FROM public.appointments o WHERE o.doctor_id = a.doctor_id AND o.date = a.date AND o.id < a.id);
+DELETE FROM public.appointments a USING public.appointments o WHERE a.doctor_id = o.doctor_id AND a.date = o.date AND a.id > o.id;
+ALTER TABLE public.appointments ADD CONSTRAINT uk_appointments_doctor_date UNIQUE (doctor_id, date);
+
+--Trigram indexes for searching animal and customer names, case and diacritic insensitive
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS unaccent;
+CREATE OR REPLACE FUNCTION public.f_unaccent(text) RETURNS text AS $$ SELECT public.unaccent('public.unaccent', $1) $$ LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT;
+CREATE INDEX IF NOT EXISTS idx_animals_name_trgm ON public.animals USING gin (lower(public.f_unaccent(name)) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_customers_name_trgm ON public.customers USING gin (lower(public.f_unaccent(name)) gin_trgm_ops);
+
+--Version columns for optimistic locking and entity tags
+ALTER TABLE public.customers ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE public.animals ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE public.doctors ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE public.appointments ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE public.vaccines ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE public.dates ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+--Index for the duplicate vaccine check
+CREATE INDEX IF NOT EXISTS idx_vaccines_animal_name_expiration ON public.vaccines (animal_id, name, expiration_date);
+
+--Vaccine reminder scan: partition index, reminders and checkpoints
+CREATE INDEX IF NOT EXISTS idx_vaccines_expiration_id ON public.vaccines (expiration_date, id);
+CREATE TABLE IF NOT EXISTS public.vaccine_reminders (
+    id BIGSERIAL PRIMARY KEY,
+    vaccine_id BIGINT NOT NULL,
+    animal_id BIGINT NOT NULL,
+    vaccine_name VARCHAR(255) NOT NULL,
+    expiration_date DATE NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_vaccine_reminders_vaccine_expiration UNIQUE (vaccine_id, expiration_date)
+);
+CREATE TABLE IF NOT EXISTS public.job_checkpoints (
+    id BIGSERIAL PRIMARY KEY,
+    job VARCHAR(255) NOT NULL,
+    run_date DATE NOT NULL,
+    partition_key VARCHAR(255) NOT NULL,
+    last_id BIGINT NOT NULL,
+    completed BOOLEAN NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_job_checkpoints_partition UNIQUE (job, run_date, partition_key)
+);
+
+--Vaccination coverage rollups, filled once from the existing rows and kept up to date by the application
+CREATE TABLE IF NOT EXISTS public.vaccination_rollups (
+    species VARCHAR(255) NOT NULL,
+    breed VARCHAR(255) NOT NULL,
+    vaccine_name VARCHAR(255) NOT NULL,
+    month DATE NOT NULL,
+    vaccinations BIGINT NOT NULL,
+    PRIMARY KEY (species, breed, vaccine_name, month)
+);
+CREATE TABLE IF NOT EXISTS public.animal_rollups (
+    species VARCHAR(255) NOT NULL,
+    breed VARCHAR(255) NOT NULL,
+    animals BIGINT NOT NULL,
+    PRIMARY KEY (species, breed)
+);
+INSERT INTO public.vaccination_rollups (species, breed, vaccine_name, month, vaccinations)
+SELECT a.species, a.breed, v.name, date_trunc('month', v.application_date)::date, COUNT(*)
+FROM public.vaccines v JOIN public.animals a ON a.id = v.animal_id
+GROUP BY a.species, a.breed, v.name, date_trunc('month', v.application_date)
+ON CONFLICT DO NOTHING;
+INSERT INTO public.animal_rollups (species, breed, animals)
+SELECT a.species, a.breed, COUNT(*) FROM public.animals a GROUP BY a.species, a.breed
+ON CONFLICT DO NOTHING;
+
+--Customer and animal ids are allocated 50 at a time by the application, the sequences must step by the same size
+DO $$
+BEGIN
+    EXECUTE format('ALTER SEQUENCE %s INCREMENT BY 50', pg_get_serial_sequence('public.customers', 'id'));
+    EXECUTE format('ALTER SEQUENCE %s INCREMENT BY 50', pg_get_serial_sequence('public.animals', 'id'));
+END $$;
+
+--Outbox of the notifications to the owners of the animals
+CREATE TABLE IF NOT EXISTS public.outbox_messages (
+    id BIGSERIAL PRIMARY KEY,
+    type VARCHAR(255) NOT NULL,
+    aggregate_type VARCHAR(255) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    animal_id BIGINT NOT NULL,
+    recipient VARCHAR(255),
+    payload TEXT NOT NULL,
+    status VARCHAR(255) NOT NULL,
+    attempts INTEGER NOT NULL,
+    available_at TIMESTAMP(6) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    sent_at TIMESTAMP(6),
+    last_error VARCHAR(1000)
+);
+CREATE INDEX IF NOT EXISTS idx_outbox_messages_status_available ON public.outbox_messages (status, available_at);
+CREATE INDEX IF NOT EXISTS idx_outbox_messages_aggregate ON public.outbox_messages (aggregate_type, aggregate_id);
+
+--Soft delete of customers and doctors and the tasks that purge their rows
+ALTER TABLE public.customers ADD COLUMN IF NOT EXISTS deleted BOOLEAN NOT NULL DEFAULT false;
+ALTER TABLE public.doctors ADD COLUMN IF NOT EXISTS deleted BOOLEAN NOT NULL DEFAULT false;
+CREATE TABLE IF NOT EXISTS public.purge_tasks (
+    id BIGSERIAL PRIMARY KEY,
+    entity_type VARCHAR(255) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    status VARCHAR(255) NOT NULL,
+    step VARCHAR(255),
+    deleted_rows BIGINT NOT NULL,
+    attempts INTEGER NOT NULL,
+    last_error VARCHAR(1000),
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    finished_at TIMESTAMP(6)
+);
+CREATE INDEX IF NOT EXISTS idx_purge_tasks_status ON public.purge_tasks (status);
+CREATE INDEX IF NOT EXISTS idx_animals_customer_id ON public.animals (customer_id);
+CREATE INDEX IF NOT EXISTS idx_appointments_doctor_id ON public.appointments (doctor_id);
+CREATE INDEX IF NOT EXISTS idx_appointments_animal_id ON public.appointments (animal_id);
+CREATE INDEX IF NOT EXISTS idx_dates_doctor_id ON public.dates (doctor_id);
+
+--Only one available date per doctor and date, duplicates written before the constraint are removed first
+DELETE FROM public.dates d USING public.dates o WHERE d.doctor_id = o.doctor_id AND d.date = o.date AND d.id > o.id;
+ALTER TABLE public.dates ADD CONSTRAINT uk_dates_doctor_date UNIQUE (doctor_id, date);
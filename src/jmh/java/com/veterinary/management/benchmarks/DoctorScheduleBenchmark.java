@@ -0,0 +1,118 @@
+package com.veterinary.management.benchmarks;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.veterinary.management.models.Appointment;
+import com.veterinary.management.models.AvailableDate;
+import com.veterinary.management.models.Doctor;
+
+/*
+ * This class measures the schedule checks of Doctor against the hash lookups the booking path uses instead.
+ *
+ * The loops of isDoctorHasAvailableDateOnDate and isDoctorHasAppointmentOnDate walk the loaded collections,
+ * so they are measured with a date that is missing, the case every free slot pays for, and with one in the middle.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DoctorScheduleBenchmark {
+
+    private static final LocalDate FIRST_DATE = LocalDate.of(2024, 1, 1);
+
+    @Param({ "10", "100", "1000", "10000" })
+    private int size;
+
+    private Doctor doctor;
+    private Set<LocalDate> availableDates;
+    private Set<LocalDateTime> appointmentDates;
+    private LocalDate presentDate;
+    private LocalDate missingDate;
+    private LocalDateTime presentDateTime;
+    private LocalDateTime missingDateTime;
+
+    @Setup
+    public void setUp() {
+        doctor = new Doctor();
+        List<AvailableDate> dates = new ArrayList<>(size);
+        List<Appointment> appointments = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            AvailableDate availableDate = new AvailableDate();
+            availableDate.setDate(FIRST_DATE.plusDays(i));
+            availableDate.setDoctor(doctor);
+            dates.add(availableDate);
+
+            Appointment appointment = new Appointment();
+            appointment.setDate(FIRST_DATE.atTime(9, 0).plusHours(i));
+            appointment.setDoctor(doctor);
+            appointments.add(appointment);
+        }
+        doctor.setAvailableDates(dates);
+        doctor.setAppointments(appointments);
+
+        availableDates = new HashSet<>();
+        for (AvailableDate availableDate : dates) {
+            availableDates.add(availableDate.getDate());
+        }
+        appointmentDates = new HashSet<>();
+        for (Appointment appointment : appointments) {
+            appointmentDates.add(appointment.getDate());
+        }
+
+        // computed again, so the hits compare equal instances and not the same one
+        presentDate = FIRST_DATE.plusDays(size / 2);
+        missingDate = FIRST_DATE.minusDays(1);
+        presentDateTime = FIRST_DATE.atTime(9, 0).plusHours(size / 2);
+        missingDateTime = FIRST_DATE.atTime(8, 0);
+    }
+
+    @Benchmark
+    public boolean availableDateLoopHit() {
+        return doctor.isDoctorHasAvailableDateOnDate(presentDate);
+    }
+
+    @Benchmark
+    public boolean availableDateLoopMiss() {
+        return doctor.isDoctorHasAvailableDateOnDate(missingDate);
+    }
+
+    @Benchmark
+    public boolean availableDateSetMiss() {
+        return availableDates.contains(missingDate);
+    }
+
+    @Benchmark
+    public boolean appointmentLoopHit() {
+        return doctor.isDoctorHasAppointmentOnDate(presentDateTime);
+    }
+
+    @Benchmark
+    public boolean appointmentLoopMiss() {
+        return doctor.isDoctorHasAppointmentOnDate(missingDateTime);
+    }
+
+    @Benchmark
+    public boolean appointmentSetMiss() {
+        return appointmentDates.contains(missingDateTime);
+    }
+}
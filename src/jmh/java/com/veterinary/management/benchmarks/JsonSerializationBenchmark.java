@@ -0,0 +1,121 @@
+package com.veterinary.management.benchmarks;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.veterinary.management.models.Animal;
+import com.veterinary.management.models.Appointment;
+import com.veterinary.management.models.Customer;
+import com.veterinary.management.models.Doctor;
+import com.veterinary.management.responses.AppointmentResponse;
+
+/*
+ * This class measures the JSON the API writes for appointment and animal graphs.
+ *
+ * The ObjectMapper is built like the one of Spring Boot, so the java.time module and the date format match the API.
+ * An appointment entity carries its doctor, animal and the customer of the animal,
+ * it is measured against the flat AppointmentResponse the list endpoints return.
+ * The animals of a customer are written as GET /api/customers/{id}/animals writes them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    private static final LocalDateTime FIRST_DATE_TIME = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+    @Param({ "1", "20", "500" })
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<Appointment> appointments;
+    private List<AppointmentResponse> appointmentResponses;
+    private List<Animal> animals;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        Doctor doctor = new Doctor();
+        doctor.setId(1L);
+        doctor.setVersion(0L);
+        doctor.setName("Doctor 1");
+        doctor.setEmail("doctor1@veterinary.com");
+        doctor.setPhone("+90 555 000 00 01");
+        doctor.setAddress("Street 1");
+        doctor.setCity("Istanbul");
+
+        Customer customer = new Customer();
+        customer.setId(1L);
+        customer.setVersion(0L);
+        customer.setName("Customer 1");
+        customer.setEmail("customer1@veterinary.com");
+        customer.setPhone("+90 555 100 00 01");
+        customer.setAddress("Street 2");
+        customer.setCity("Istanbul");
+
+        appointments = new ArrayList<>(size);
+        appointmentResponses = new ArrayList<>(size);
+        animals = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Animal animal = new Animal();
+            animal.setId((long) i + 1);
+            animal.setVersion(0L);
+            animal.setName("Animal " + (i + 1));
+            animal.setSpecies(i % 2 == 0 ? "Dog" : "Cat");
+            animal.setBreed(i % 2 == 0 ? "Golden Retriever" : "British Shorthair");
+            animal.setGender(i % 3 == 0 ? "Female" : "Male");
+            animal.setColour("Brown");
+            animal.setBirthDate(LocalDate.of(2018, 1, 1).plusDays(i));
+            animal.setCustomer(customer);
+            animals.add(animal);
+
+            Appointment appointment = new Appointment();
+            appointment.setId((long) i + 1);
+            appointment.setVersion(0L);
+            appointment.setDate(FIRST_DATE_TIME.plusHours(i));
+            appointment.setDoctor(doctor);
+            appointment.setAnimal(animal);
+            appointments.add(appointment);
+
+            appointmentResponses.add(new AppointmentResponse(appointment.getId(), appointment.getDate(),
+                    doctor.getId(), doctor.getName(), animal.getId(), animal.getName()));
+        }
+    }
+
+    @Benchmark
+    public byte[] appointmentEntities() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(appointments);
+    }
+
+    @Benchmark
+    public byte[] appointmentResponses() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(appointmentResponses);
+    }
+
+    @Benchmark
+    public byte[] customerAnimals() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(animals);
+    }
+}
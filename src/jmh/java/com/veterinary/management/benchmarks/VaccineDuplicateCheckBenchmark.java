@@ -0,0 +1,95 @@
+package com.veterinary.management.benchmarks;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.veterinary.management.models.Animal;
+import com.veterinary.management.models.Vaccine;
+
+/*
+ * This class measures the duplicate vaccine rule of addVaccine, no unexpired vaccine with the same name.
+ *
+ * addVaccine used to walk every vaccine of the animal, that loop is kept here as the baseline.
+ * It is measured against the lookup that replaced it, the latest expiry per vaccine name as VaccineExpiryCache holds it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VaccineDuplicateCheckBenchmark {
+
+    private static final LocalDate FIRST_DATE = LocalDate.of(2020, 1, 1);
+
+    @Param({ "5", "50", "500" })
+    private int vaccines;
+
+    @Param({ "10" })
+    private int names;
+
+    private Animal animal;
+    private Map<String, LocalDate> latestExpiries;
+    private Vaccine candidate;
+
+    @Setup
+    public void setUp() {
+        animal = new Animal();
+        List<Vaccine> history = new ArrayList<>(vaccines);
+        for (int i = 0; i < vaccines; i++) {
+            Vaccine vaccine = new Vaccine();
+            vaccine.setName("vaccine-" + (i % names));
+            vaccine.setApplicationDate(FIRST_DATE.plusDays(i));
+            vaccine.setExpirationDate(FIRST_DATE.plusDays(i).plusYears(1));
+            vaccine.setAnimal(animal);
+            history.add(vaccine);
+        }
+        animal.setVaccines(history);
+
+        latestExpiries = new HashMap<>();
+        for (Vaccine vaccine : history) {
+            latestExpiries.merge(vaccine.getName(), vaccine.getExpirationDate(), (first, second) -> second.isAfter(first) ? second : first);
+        }
+
+        // applied after every expiry, so the rule passes and the loop walks the whole history
+        candidate = new Vaccine();
+        // a copy of the name, as a request body would bring it, so equals compares the characters
+        candidate.setName(new String("vaccine-0"));
+        candidate.setApplicationDate(FIRST_DATE.plusDays(vaccines).plusYears(2));
+        candidate.setExpirationDate(candidate.getApplicationDate().plusYears(1));
+        candidate.setAnimal(animal);
+    }
+
+    @Benchmark
+    public boolean historyLoop() {
+        for (Vaccine vaccine : animal.getVaccines()) {
+            if (vaccine.getName().equals(candidate.getName())
+                    && vaccine.getExpirationDate().isAfter(candidate.getApplicationDate())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean latestExpiryLookup() {
+        LocalDate latestExpiry = latestExpiries.get(candidate.getName());
+        return latestExpiry != null && latestExpiry.isAfter(candidate.getApplicationDate());
+    }
+}
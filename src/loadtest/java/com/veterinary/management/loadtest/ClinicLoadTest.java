@@ -0,0 +1,306 @@
+package com.veterinary.management.loadtest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ActiveProfilesResolver;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.veterinary.management.loadtest.LatencySamples.EndpointReport;
+import com.veterinary.management.loadtest.Workload.Operation;
+import com.veterinary.management.requests.AnimalRequest;
+import com.veterinary.management.requests.CustomerIngestRequest;
+import com.veterinary.management.requests.DoctorRequest;
+import com.veterinary.management.requests.RecurringAvailableDateRequest;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jakarta.persistence.EntityManagerFactory;
+
+/*
+ * This class drives a mixed load against the whole application and reports the throughput and latency of every endpoint.
+ *
+ * The application runs on a random port against an embedded Postgres, or against the scratch database of loadtest.datasource.url.
+ * Doctors, their available dates and customers with their animals are loaded through the API first.
+ * Then loadtest.concurrency workers send requests back to back, each waits for its response before the next one.
+ * The first loadtest.warmup of the run is not measured.
+ * The report is logged and written as JSON to loadtest.report, the settings are in application-loadtest.properties.
+ * Further Spring profiles, such as virtual, are activated with loadtest.profiles.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles(resolver = ClinicLoadTest.Profiles.class)
+class ClinicLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ClinicLoadTest.class);
+
+    private static EmbeddedPostgres postgres;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int poolSize;
+
+    @Value("${loadtest.concurrency}")
+    private int concurrency;
+
+    @Value("${loadtest.warmup}")
+    private Duration warmup;
+
+    @Value("${loadtest.duration}")
+    private Duration duration;
+
+    @Value("${loadtest.mix.booking}")
+    private int bookingWeight;
+
+    @Value("${loadtest.mix.read}")
+    private int readWeight;
+
+    @Value("${loadtest.mix.search}")
+    private int searchWeight;
+
+    @Value("${loadtest.doctors}")
+    private int doctors;
+
+    @Value("${loadtest.customers}")
+    private int customers;
+
+    @Value("${loadtest.animals-per-customer}")
+    private int animalsPerCustomer;
+
+    @Value("${loadtest.booking-days}")
+    private int bookingDays;
+
+    @Value("${loadtest.report}")
+    private String reportPath;
+
+    private final HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) throws IOException {
+        String url = System.getProperty("loadtest.datasource.url");
+        if (url == null) {
+            postgres = EmbeddedPostgres.start();
+            url = postgres.getJdbcUrl("postgres", "postgres");
+        }
+        String datasourceUrl = url;
+        registry.add("spring.datasource.url", () -> datasourceUrl);
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @Test
+    void mixedLoad() throws Exception {
+        LocalDate firstDay = LocalDate.now().plusDays(1);
+        seed(firstDay);
+        Workload workload = new Workload(baseUrl(), objectMapper,
+                jdbcTemplate.queryForList("select id from doctors", Long.class),
+                jdbcTemplate.queryForList("select id from customers", Long.class),
+                jdbcTemplate.queryForList("select id from animals", Long.class),
+                firstDay, bookingDays, bookingWeight, readWeight, searchWeight);
+
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        Map<String, LatencySamples> samples = new TreeMap<>();
+        try {
+            List<Future<Map<String, LatencySamples>>> results = new ArrayList<>();
+            for (int worker = 0; worker < concurrency; worker++) {
+                long seed = worker;
+                results.add(workers.submit(() -> run(workload, new Random(seed), measureFrom, end)));
+            }
+            for (Future<Map<String, LatencySamples>> result : results) {
+                result.get().forEach((endpoint, workerSamples) -> samples.computeIfAbsent(endpoint, key -> new LatencySamples()).merge(workerSamples));
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+
+        double seconds = duration.toNanos() / 1_000_000_000.0;
+        List<EndpointReport> endpoints = new ArrayList<>();
+        long errors = 0;
+        for (Map.Entry<String, LatencySamples> entry : samples.entrySet()) {
+            endpoints.add(entry.getValue().report(entry.getKey(), seconds));
+            errors += entry.getValue().errors();
+        }
+        LoadReport report = new LoadReport(List.of(environment.getActiveProfiles()), poolSize, concurrency, seconds, bookingWeight, readWeight, searchWeight, endpoints);
+        log(report);
+        File reportFile = new File(reportPath).getAbsoluteFile();
+        reportFile.getParentFile().mkdirs();
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(reportFile, report);
+
+        assertEquals(0, errors, "Requests failed with a status other than 2xx or 409, see " + reportFile);
+    }
+
+    /*
+     * This method sends requests until the end of the run
+     * @return Map<String, LatencySamples> the samples of the worker by route
+     */
+    private Map<String, LatencySamples> run(Workload workload, Random random, long measureFrom, long end) throws InterruptedException {
+        Map<String, LatencySamples> samples = new HashMap<>();
+        while (System.nanoTime() < end) {
+            Operation operation = workload.next(random);
+            long start = System.nanoTime();
+            int status;
+            try {
+                status = httpClient.send(operation.request(), HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (IOException e) {
+                status = 0;
+            }
+            long latency = System.nanoTime() - start;
+            if (start >= measureFrom) {
+                samples.computeIfAbsent(operation.endpoint(), key -> new LatencySamples()).record(latency, status);
+            }
+        }
+        return samples;
+    }
+
+    /*
+     * This method loads the doctors, their dates for the booking window and the customers with their animals
+     */
+    private void seed(LocalDate firstDay) throws IOException, InterruptedException {
+        List<Long> doctorIds = new ArrayList<>();
+        for (int i = 0; i < doctors; i++) {
+            DoctorRequest doctorRequest = new DoctorRequest(name(i), "+90 555 000 " + String.format("%04d", i),
+                    "doctor" + i + "@veterinary.com", "Street " + i, "Istanbul");
+            HttpResponse<String> response = post("/api/doctors", "application/json", objectMapper.writeValueAsString(doctorRequest));
+            doctorIds.add(objectMapper.readTree(response.body()).get("id").asLong());
+        }
+        post("/api/dates/recurring", "application/json", objectMapper.writeValueAsString(new RecurringAvailableDateRequest(
+                doctorIds, firstDay, firstDay.plusDays(bookingDays - 1), EnumSet.allOf(DayOfWeek.class))));
+
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < customers; i++) {
+            List<AnimalRequest> animals = new ArrayList<>();
+            for (int j = 0; j < animalsPerCustomer; j++) {
+                int n = i * animalsPerCustomer + j;
+                animals.add(new AnimalRequest(Workload.ANIMAL_NAMES[n % Workload.ANIMAL_NAMES.length] + " " + n,
+                        n % 2 == 0 ? "Dog" : "Cat", n % 2 == 0 ? "Golden Retriever" : "British Shorthair",
+                        n % 3 == 0 ? "Female" : "Male", "Brown", LocalDate.of(2015, 1, 1).plusDays(n % 3000), null));
+            }
+            CustomerIngestRequest customer = new CustomerIngestRequest(name(i), "+90 555 100 " + String.format("%04d", i % 10000),
+                    "customer" + i + "@veterinary.com", "Street " + i, "Istanbul", animals);
+            lines.append(objectMapper.writeValueAsString(customer)).append('\n');
+        }
+        post("/api/customers/ingest", "application/x-ndjson", lines.toString());
+    }
+
+    private HttpResponse<String> post(String path, String contentType, String body) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl() + path))
+                .header("Content-Type", contentType)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException("POST " + path + " failed with " + response.statusCode() + ": " + response.body());
+        }
+        return response;
+    }
+
+    private String baseUrl() {
+        return "http://localhost:" + port;
+    }
+
+    private static String name(int i) {
+        return Workload.FIRST_NAMES[i % Workload.FIRST_NAMES.length] + " "
+                + Workload.LAST_NAMES[(i / Workload.FIRST_NAMES.length) % Workload.LAST_NAMES.length];
+    }
+
+    private static void log(LoadReport report) {
+        StringBuilder table = new StringBuilder(String.format("%n%-52s %9s %9s %7s %9s %9s %9s %9s %9s",
+                "endpoint", "requests", "conflicts", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+        for (EndpointReport row : report.endpoints()) {
+            table.append(String.format("%n%-52s %9d %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f", row.endpoint(), row.requests(),
+                    row.conflicts(), row.errors(), row.throughput(), row.p50Millis(), row.p99Millis(), row.p999Millis(), row.maxMillis()));
+        }
+        log.info("Load test, profiles {}, pool of {}, {} workers for {} s:{}", report.profiles(), report.poolSize(),
+                report.concurrency(), report.seconds(), table);
+    }
+
+    /*
+     * The loadtest profile, followed by the comma separated profiles of the loadtest.profiles system property
+     */
+    static class Profiles implements ActiveProfilesResolver {
+
+        @Override
+        public String[] resolve(Class<?> testClass) {
+            List<String> profiles = new ArrayList<>(List.of("loadtest"));
+            for (String profile : System.getProperty("loadtest.profiles", "").split(",")) {
+                if (!profile.isBlank()) {
+                    profiles.add(profile.trim());
+                }
+            }
+            return profiles.toArray(String[]::new);
+        }
+    }
+
+    /*
+     * Hibernate creates the tables of the entities, migrations.sql then adds the rollup tables, the trigram search and the indexes.
+     * Statements the created tables already satisfy fail and are skipped.
+     */
+    @TestConfiguration
+    static class Schema {
+
+        @Bean
+        ResourceDatabasePopulator migrations(DataSource dataSource, EntityManagerFactory entityManagerFactory) {
+            ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new FileSystemResource("migrations.sql"));
+            populator.setContinueOnError(true);
+            populator.execute(dataSource);
+            return populator;
+        }
+    }
+
+    record LoadReport(List<String> profiles, int poolSize, int concurrency, double seconds, int bookingWeight, int readWeight, int searchWeight,
+            List<EndpointReport> endpoints) {
+    }
+}
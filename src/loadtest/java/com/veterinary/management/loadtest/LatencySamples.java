@@ -0,0 +1,74 @@
+package com.veterinary.management.loadtest;
+
+import java.util.Arrays;
+
+/*
+ * This class keeps the latencies of one endpoint, measured by one worker.
+ * Every worker records into its own samples, they are merged once the run is over, so recording takes no lock.
+ */
+class LatencySamples {
+
+    private long[] nanos = new long[1024];
+    private int count;
+    private long conflicts;
+    private long errors;
+
+    /*
+     * This method records one request
+     * @param long latency in nanoseconds
+     * @param int status the HTTP status, 409 is an expected outcome of a booking race, other non 2xx statuses are errors
+     */
+    void record(long latency, int status) {
+        if (count == nanos.length) {
+            nanos = Arrays.copyOf(nanos, count * 2);
+        }
+        nanos[count++] = latency;
+        if (status == 409) {
+            conflicts++;
+        } else if (status < 200 || status >= 300) {
+            errors++;
+        }
+    }
+
+    void merge(LatencySamples other) {
+        if (count + other.count > nanos.length) {
+            nanos = Arrays.copyOf(nanos, count + other.count);
+        }
+        System.arraycopy(other.nanos, 0, nanos, count, other.count);
+        count += other.count;
+        conflicts += other.conflicts;
+        errors += other.errors;
+    }
+
+    long errors() {
+        return errors;
+    }
+
+    /*
+     * This method sorts the samples and returns the row of the report
+     * @param String endpoint
+     * @param double seconds the length of the measured run
+     * @return EndpointReport
+     */
+    EndpointReport report(String endpoint, double seconds) {
+        Arrays.sort(nanos, 0, count);
+        return new EndpointReport(endpoint, count, conflicts, errors, count / seconds,
+                percentile(0.50), percentile(0.99), percentile(0.999), count == 0 ? 0 : toMillis(nanos[count - 1]));
+    }
+
+    private double percentile(double quantile) {
+        if (count == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * count) - 1;
+        return toMillis(nanos[Math.max(0, index)]);
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    record EndpointReport(String endpoint, long requests, long conflicts, long errors, double throughput,
+            double p50Millis, double p99Millis, double p999Millis, double maxMillis) {
+    }
+}
@@ -0,0 +1,138 @@
+package com.veterinary.management.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.veterinary.management.requests.AppointmentRequest;
+
+/*
+ * This class picks the requests of the load test.
+ *
+ * A request is a booking, a read or a search, with the given weights:
+ * - bookings pick a doctor, an animal and a slot of the booking window at random, two workers may pick the same slot,
+ * - reads fetch doctors, animals, the animals of a customer and the appointments of a doctor in a week,
+ * - searches look up animal and customer names and the earliest free slot.
+ * Every request is reported under its route, so the ids of the path do not split the endpoints.
+ */
+class Workload {
+
+    static final String[] FIRST_NAMES = { "Ayşe", "Mehmet", "Zeynep", "Ahmet", "Elif", "Mustafa", "Emine", "Ali", "Fatma", "Hüseyin" };
+    static final String[] LAST_NAMES = { "Yılmaz", "Kaya", "Demir", "Şahin", "Çelik", "Yıldız", "Öztürk", "Aydın", "Arslan", "Doğan" };
+    static final String[] ANIMAL_NAMES = { "Boncuk", "Pamuk", "Karamel", "Tarçın", "Duman", "Zeytin", "Fıstık", "Limon", "Paşa", "Minnoş" };
+    private static final String[] CUSTOMER_QUERIES = { "yil", "kaya", "demi", "sahin", "celik", "ozt", "aydin", "arsl", "dog" };
+    private static final String[] ANIMAL_QUERIES = { "bon", "pamu", "kara", "tarc", "duma", "zey", "fist", "limo", "pas", "minn" };
+
+    private final String baseUrl;
+    private final ObjectMapper objectMapper;
+    private final List<Long> doctorIds;
+    private final List<Long> customerIds;
+    private final List<Long> animalIds;
+    private final LocalDate firstDay;
+    private final int days;
+    private final int bookingWeight;
+    private final int readWeight;
+    private final int searchWeight;
+
+    Workload(String baseUrl, ObjectMapper objectMapper, List<Long> doctorIds, List<Long> customerIds, List<Long> animalIds,
+            LocalDate firstDay, int days, int bookingWeight, int readWeight, int searchWeight) {
+        if (bookingWeight + readWeight + searchWeight <= 0) {
+            throw new IllegalArgumentException("At least one workload weight must be positive");
+        }
+        this.baseUrl = baseUrl;
+        this.objectMapper = objectMapper;
+        this.doctorIds = doctorIds;
+        this.customerIds = customerIds;
+        this.animalIds = animalIds;
+        this.firstDay = firstDay;
+        this.days = days;
+        this.bookingWeight = bookingWeight;
+        this.readWeight = readWeight;
+        this.searchWeight = searchWeight;
+    }
+
+    /*
+     * This method returns the next request of a worker
+     * @param Random random the random of the worker
+     * @return Operation the route to report the request under and the request
+     */
+    Operation next(Random random) {
+        int pick = random.nextInt(bookingWeight + readWeight + searchWeight);
+        if (pick < bookingWeight) {
+            return booking(random);
+        }
+        if (pick < bookingWeight + readWeight) {
+            return read(random);
+        }
+        return search(random);
+    }
+
+    private Operation booking(Random random) {
+        AppointmentRequest appointmentRequest = new AppointmentRequest(
+                firstDay.plusDays(random.nextInt(days)).atTime(9 + random.nextInt(8), 0),
+                pick(doctorIds, random), pick(animalIds, random));
+        try {
+            return new Operation("POST /api/appointments", HttpRequest.newBuilder(uri("/api/appointments"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(appointmentRequest)))
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Operation read(Random random) {
+        switch (random.nextInt(4)) {
+            case 0:
+                return get("GET /api/doctors/{id}", "/api/doctors/" + pick(doctorIds, random));
+            case 1:
+                return get("GET /api/animals/{id}", "/api/animals/" + pick(animalIds, random));
+            case 2:
+                return get("GET /api/customers/{id}/animals", "/api/customers/" + pick(customerIds, random) + "/animals");
+            default:
+                LocalDate startDate = firstDay.plusDays(random.nextInt(days));
+                return get("GET /api/appointments/findByDoctorIdAndDateBetween", "/api/appointments/findByDoctorIdAndDateBetween?id="
+                        + pick(doctorIds, random) + "&startDate=" + startDate + "&endDate=" + startDate.plusDays(6));
+        }
+    }
+
+    private Operation search(Random random) {
+        switch (random.nextInt(3)) {
+            case 0:
+                return get("GET /api/animals/findByName", "/api/animals/findByName?name=" + encode(pick(ANIMAL_QUERIES, random)));
+            case 1:
+                return get("GET /api/customers/findByName", "/api/customers/findByName?name=" + encode(pick(CUSTOMER_QUERIES, random)));
+            default:
+                return get("GET /api/appointments/earliestSlot", "/api/appointments/earliestSlot");
+        }
+    }
+
+    private Operation get(String endpoint, String path) {
+        return new Operation(endpoint, HttpRequest.newBuilder(uri(path)).GET().build());
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static <T> T pick(List<T> values, Random random) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    private static <T> T pick(T[] values, Random random) {
+        return values[random.nextInt(values.length)];
+    }
+
+    record Operation(String endpoint, HttpRequest request) {
+    }
+}
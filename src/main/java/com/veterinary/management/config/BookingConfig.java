@@ -0,0 +1,23 @@
+package com.veterinary.management.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.veterinary.management.utils.StripedLocks;
+
+/*
+ * This class configures the beans used to serialize bookings.
+ */
+@Configuration
+public class BookingConfig {
+
+    /*
+     * Bookings of the same doctor run one at a time, bookings of different doctors run in parallel.
+     * The unique constraint on appointments(doctor_id, date) still guards deployments with more than one node.
+     */
+    @Bean
+    public StripedLocks bookingLocks(@Value("${veterinary.booking.lock-stripes:64}") int stripes) {
+        return new StripedLocks(stripes);
+    }
+}
@@ -0,0 +1,14 @@
+package com.veterinary.management.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/*
+ * This class enables the caches of doctors and customers.
+ * The caches are Caffeine caches bounded by size and time to live, see spring.cache.caffeine.spec.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+}
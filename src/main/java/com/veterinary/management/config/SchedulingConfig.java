@@ -0,0 +1,13 @@
+package com.veterinary.management.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/*
+ * This class enables the scheduled jobs, such as the vaccine reminder scan.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+}
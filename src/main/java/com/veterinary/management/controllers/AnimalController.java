@@ -10,6 +10,7 @@
  * - deleteAnimal: This method handles the request for deleting an animal.
  * - findByName: This method handles the request for finding animals by name.
  * - getVaccinesByAnimalId: This method handles the request for getting all the vaccines of an animal.
+ * - getDossier: This method handles the request for getting an animal with its owner, vaccines and recent appointments.
  * 
  * It has the following routes:
  * - GET /api/animals
@@ -19,6 +20,7 @@
  * - DELETE /api/animals/{id}
  * - GET /api/animals/findByName
  * - GET /api/animals/{id}/vaccines
+ * - GET /api/animals/{id}/dossier
  */
 package com.veterinary.management.controllers;
 
@@ -27,14 +29,23 @@ import lombok.RequiredArgsConstructor;
 
 import java.util.List;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import com.veterinary.management.models.Animal;
 import com.veterinary.management.models.Vaccine;
+import com.veterinary.management.services.FieldSelectionService;
 import com.veterinary.management.services.AnimalService;
+import com.veterinary.management.services.DossierService;
+import com.veterinary.management.services.VaccineService;
+import com.veterinary.management.utils.ETags;
 import com.veterinary.management.requests.AnimalRequest;
+import com.veterinary.management.requests.PageParams;
+import com.veterinary.management.responses.AnimalDossierResponse;
+import com.veterinary.management.responses.AnimalResponse;
+import com.veterinary.management.responses.PageResponse;
 
 @RestController
 @RequestMapping("/api/animals")
@@ -42,23 +53,42 @@ import com.veterinary.management.requests.AnimalRequest;
 public class AnimalController {
 
     private final AnimalService animalService;
+    private final VaccineService vaccineService;
+    private final DossierService dossierService;
+    private final FieldSelectionService fieldSelectionService;
 
     /*
-     *  This method handles the request for getting all the animals.
+     *  This method handles the request for getting one page of the animals, sorted by id.
+     *  @param pageParams the cursor, size and sort direction, the nextCursor of a page is the cursor of the next one.
+     *  @param fields comma separated fields to return, only those columns are read.
+     *  @return the animals of the page.
      */
     @GetMapping
-    public ResponseEntity<List<Animal>> getAllAnimals() {
-        return ResponseEntity.ok(animalService.getAllAnimals());
+    public ResponseEntity<PageResponse<?>> getAllAnimals(PageParams pageParams, @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(fieldSelectionService.getPage(Animal.class, fields, pageParams));
+        }
+        return ResponseEntity.ok(PageResponse.of(animalService.getAllAnimals(pageParams), pageParams, AnimalResponse::getId));
     }
 
     /*
      *  This method handles the request for getting an animal by its id.
      *  @param id the id of the animal.
+     *  @param fields comma separated fields to return, only those columns are read.
+     *  @param ifNoneMatch the entity tag the client already has, answered with 304 if it is still current.
      *  @return the animal with the given id.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Animal> getAnimalById(@PathVariable Long id) {
-        return ResponseEntity.ok(animalService.getAnimalById(id));
+    public ResponseEntity<?> getAnimalById(@PathVariable Long id, @RequestParam(required = false) String fields, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String representation = fields == null ? null : fieldSelectionService.getRepresentation(Animal.class, fields);
+        String versions = ETags.withRepresentation(animalService.getAnimalVersions(id), representation);
+        if (ETags.matches(ifNoneMatch, versions)) {
+            return ETags.notModified(versions);
+        }
+        if (fields != null) {
+            return ETags.ok(fieldSelectionService.getById(Animal.class, id, fields), row -> versions);
+        }
+        return ETags.ok(animalService.getAnimalById(id), row -> versions);
     }
 
     /*
@@ -75,11 +105,12 @@ public class AnimalController {
      *  This method handles the request for updating an animal.
      *  @param id the id of the animal.
      *  @param animalRequest the request for updating an animal.
+     *  @param ifMatch the entity tag the client has read, the update fails with 412 if it is outdated.
      *  @return the updated animal.
      */
     @PutMapping("/{id}")
-    public ResponseEntity<Animal> updateAnimal(@PathVariable Long id, @RequestBody AnimalRequest animalRequest) {
-        return ResponseEntity.ok(animalService.updateAnimal(id, animalRequest));
+    public ResponseEntity<Animal> updateAnimal(@PathVariable Long id, @RequestBody AnimalRequest animalRequest, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return ETags.ok(animalService.updateAnimal(id, animalRequest, ETags.expectedVersion(ifMatch)), row -> animalService.getAnimalVersions(id));
     }
 
     /*
@@ -96,8 +127,8 @@ public class AnimalController {
      * This method handles the request for Fİnding animals by name
      */
     @GetMapping("/findByName")
-    public ResponseEntity<List<Animal>> findByName(@RequestParam String name) {
-        return ResponseEntity.ok(animalService.findByName(name));
+    public ResponseEntity<List<AnimalResponse>> findByName(@RequestParam String name, @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(animalService.findByName(name, limit));
     }
 
     /*
@@ -105,13 +136,23 @@ public class AnimalController {
      */
     @GetMapping("/{id}/vaccines")
     public ResponseEntity<List<Vaccine>> getVaccinesByAnimalId(@PathVariable Long id) {
-        Animal animal = animalService.getAnimalById(id);
+        if (!animalService.existsById(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(vaccineService.getVaccinesByAnimalId(id));
+    }
 
-        if (animal == null) {
+    /*
+     * This method handles the request for getting an animal with its owner, vaccines and recent appointments.
+     * The owner is the customerId and customerName of the animal.
+     * The parts are loaded in parallel.
+     */
+    @GetMapping("/{id}/dossier")
+    public ResponseEntity<AnimalDossierResponse> getDossier(@PathVariable Long id) {
+        AnimalDossierResponse dossier = dossierService.getDossier(id);
+        if (dossier == null) {
             return ResponseEntity.notFound().build();
         }
-        return ResponseEntity.ok(animal.getVaccines());
+        return ResponseEntity.ok(dossier);
     }
 }
-
-
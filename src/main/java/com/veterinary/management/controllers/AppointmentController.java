@@ -6,29 +6,43 @@
  * - getAllAppointments: This method handles the request for getting all the appointments.
  * - getAppointmentById: This method handles the request for getting an appointment by its id.
  * - addAppointment: This method handles the request for adding a new appointment.
+ * - addAppointments: This method handles the request for adding many appointments at once.
  * - updateAppointment: This method handles the request for updating an appointment.
  * - deleteAppointment: This method handles the request for deleting an appointment.
  * - findByAnimalIdAndDateBetween: This method handles the request for getting all the appointments for a specific animal between two dates.
  * - findByDoctorIdAndDateBetween: This method handles the request for getting all the appointments for a specific doctor between two dates.
+ * - findEarliestSlot: This method handles the request for finding the earliest free slot of any doctor.
  * 
  * It has the following routes:
  * - GET /api/appointments
  * - GET /api/appointments/{id}
  * - POST /api/appointments
+ * - POST /api/appointments/batch
  * - PUT /api/appointments/{id}
  * - DELETE /api/appointments/{id}
  * - GET /api/appointments/findByAnimalIdAndDateBetween
  * - GET /api/appointments/findByDoctorIdAndDateBetween
+ * - GET /api/appointments/earliestSlot
  */
 package com.veterinary.management.controllers;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import com.veterinary.management.models.Appointment;
 import com.veterinary.management.requests.AppointmentRequest;
+import com.veterinary.management.requests.PageParams;
+import com.veterinary.management.responses.AppointmentResponse;
+import com.veterinary.management.responses.PageResponse;
+import com.veterinary.management.responses.AppointmentBatchResult;
+import com.veterinary.management.responses.SlotResponse;
+import com.veterinary.management.services.FieldSelectionService;
 import com.veterinary.management.services.AppointmentService;
+import com.veterinary.management.services.SlotService;
+import com.veterinary.management.utils.ETags;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -40,24 +54,41 @@ import java.util.List;
 public class AppointmentController {
 
     private final AppointmentService appointmentService;
+    private final SlotService slotService;
+    private final FieldSelectionService fieldSelectionService;
 
     /*
-     * This method handles the request for getting all the appointments.
-     * @return a list of all the appointments.
+     * This method handles the request for getting one page of the appointments, sorted by id.
+     * @param pageParams the cursor, size and sort direction, the nextCursor of a page is the cursor of the next one.
+     * @param fields comma separated fields to return, only those columns are read.
+     * @return the appointments of the page.
      */
     @GetMapping
-    public ResponseEntity<List<Appointment>> getAllAppointments() {
-        return ResponseEntity.ok(appointmentService.getAllAppointments());
+    public ResponseEntity<PageResponse<?>> getAllAppointments(PageParams pageParams, @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(fieldSelectionService.getPage(Appointment.class, fields, pageParams));
+        }
+        return ResponseEntity.ok(PageResponse.of(appointmentService.getAllAppointments(pageParams), pageParams, AppointmentResponse::getId));
     }
 
     /*
      * This method handles the request for getting an appointment by its id.
      * @param id the id of the appointment.
+     * @param fields comma separated fields to return, only those columns are read.
+     * @param ifNoneMatch the entity tag the client already has, answered with 304 if it is still current.
      * @return the appointment with the given id.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Appointment> getAppointmentById(@PathVariable Long id) {
-        return ResponseEntity.ok(appointmentService.getAppointmentById(id));
+    public ResponseEntity<?> getAppointmentById(@PathVariable Long id, @RequestParam(required = false) String fields, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String representation = fields == null ? null : fieldSelectionService.getRepresentation(Appointment.class, fields);
+        String versions = ETags.withRepresentation(appointmentService.getAppointmentVersions(id), representation);
+        if (ETags.matches(ifNoneMatch, versions)) {
+            return ETags.notModified(versions);
+        }
+        if (fields != null) {
+            return ETags.ok(fieldSelectionService.getById(Appointment.class, id, fields), row -> versions);
+        }
+        return ETags.ok(appointmentService.getAppointmentById(id), row -> versions);
     }
 
     /*
@@ -70,15 +101,26 @@ public class AppointmentController {
         return ResponseEntity.status(HttpStatus.CREATED).body(appointmentService.addAppointment(appointmentRequest));
     }
 
+    /*
+     * This method handles the request for adding many appointments at once.
+     * @param appointmentRequests the requests for adding new appointments.
+     * @return the result of every request, in the same order.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<AppointmentBatchResult>> addAppointments(@RequestBody List<AppointmentRequest> appointmentRequests) {
+        return ResponseEntity.ok(appointmentService.addAppointments(appointmentRequests));
+    }
+
     /*
      * This method handles the request for updating an appointment.
      * @param id the id of the appointment.
      * @param appointmentRequest the request for updating an appointment.
+     * @param ifMatch the entity tag the client has read, the update fails with 412 if it is outdated.
      * @return the updated appointment.
      */
     @PutMapping("/{id}")
-    public ResponseEntity<Appointment> updateAppointment(@PathVariable Long id, @RequestBody AppointmentRequest appointmentRequest) {
-        return ResponseEntity.ok(appointmentService.updateAppointment(id, appointmentRequest));
+    public ResponseEntity<Appointment> updateAppointment(@PathVariable Long id, @RequestBody AppointmentRequest appointmentRequest, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return ETags.ok(appointmentService.updateAppointment(id, appointmentRequest, ETags.expectedVersion(ifMatch)), row -> appointmentService.getAppointmentVersions(id));
     }
 
     /*
@@ -96,8 +138,8 @@ public class AppointmentController {
      * Değerlendirme Formu: 20
      */
     @GetMapping("/searchByDoctorAndDateRange")
-    public ResponseEntity<List<Appointment>> findByDoctorIdAndDateRange (@RequestParam Long id, @RequestParam LocalDate startDate, @RequestParam LocalDate endDate){
-        List<Appointment> appointmentListSearchByDoctorAndDateRange = appointmentService.findByDoctorIdAndDateRange(id, startDate, endDate);
+    public ResponseEntity<List<AppointmentResponse>> findByDoctorIdAndDateRange (@RequestParam Long id, @RequestParam LocalDate startDate, @RequestParam LocalDate endDate){
+        List<AppointmentResponse> appointmentListSearchByDoctorAndDateRange = appointmentService.findByDoctorIdAndDateRange(id, startDate, endDate);
         return ResponseEntity.ok().body(appointmentListSearchByDoctorAndDateRange);
     }
 
@@ -106,8 +148,24 @@ public class AppointmentController {
      * Değerlendirme Formu: 19
      */
     @GetMapping("/searchByAnimalAndDateRange")
-    public ResponseEntity<List<Appointment>> findByAnimalIdAndDateRange (@RequestParam Long id,@RequestParam LocalDate startDate,@RequestParam LocalDate endDate){
-        List<Appointment> appointmentListSearchByAnimalAndDateRange = appointmentService.findByAnimalIdAndDateRange(id, startDate, endDate);
+    public ResponseEntity<List<AppointmentResponse>> findByAnimalIdAndDateRange (@RequestParam Long id,@RequestParam LocalDate startDate,@RequestParam LocalDate endDate){
+        List<AppointmentResponse> appointmentListSearchByAnimalAndDateRange = appointmentService.findByAnimalIdAndDateRange(id, startDate, endDate);
         return ResponseEntity.ok().body(appointmentListSearchByAnimalAndDateRange);
     }
+
+    /*
+     * This method handles the request for finding the earliest free slot of any doctor.
+     * @param after the time to search from, now if not given.
+     * @param city the city of the doctor, any city if not given.
+     * @return the earliest free slot, or not found if there is none.
+     */
+    @GetMapping("/earliestSlot")
+    public ResponseEntity<SlotResponse> findEarliestSlot(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime after, @RequestParam(required = false) String city) {
+        SlotResponse slot = slotService.findEarliestSlot(after, city);
+
+        if (slot == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(slot);
+    }
 }
\ No newline at end of file
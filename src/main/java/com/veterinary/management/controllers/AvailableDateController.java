@@ -8,6 +8,7 @@
  * - addAvailableDate: This method handles the request for adding a new available date.
  * - updateAvailableDate: This method handles the request for updating an available date.
  * - deleteAvailableDate: This method handles the request for deleting an available date.
+ * - addRecurringAvailableDates: This method handles the request for adding available dates that repeat every week.
  * 
  * It has the following routes:
  * - GET /api/dates
@@ -15,16 +16,25 @@
  * - POST /api/dates
  * - PUT /api/dates/{id}
  * - DELETE /api/dates/{id}
+ * - POST /api/dates/recurring
  */
 package com.veterinary.management.controllers;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import com.veterinary.management.models.AvailableDate;
 import com.veterinary.management.requests.AvailableDateRequest;
+import com.veterinary.management.requests.PageParams;
+import com.veterinary.management.responses.AvailableDateResponse;
+import com.veterinary.management.responses.PageResponse;
+import com.veterinary.management.requests.RecurringAvailableDateRequest;
+import com.veterinary.management.responses.RecurringAvailableDateResult;
+import com.veterinary.management.services.FieldSelectionService;
 import com.veterinary.management.services.AvailableDateService;
+import com.veterinary.management.utils.ETags;
 import java.util.List;
 
 @RestController
@@ -33,23 +43,40 @@ import java.util.List;
 public class AvailableDateController {
 
     private final AvailableDateService availableDateService;
+    private final FieldSelectionService fieldSelectionService;
 
     /*
-     * This method handles the request for getting all the available dates.
+     * This method handles the request for getting one page of the available dates, sorted by id.
+     * @param pageParams the cursor, size and sort direction, the nextCursor of a page is the cursor of the next one.
+     * @param fields comma separated fields to return, only those columns are read.
+     * @return the available dates of the page.
      */
     @GetMapping
-    public ResponseEntity<List<AvailableDate>> getAllAvailableDates() {
-        return ResponseEntity.ok(availableDateService.getAllAvailableDates());
+    public ResponseEntity<PageResponse<?>> getAllAvailableDates(PageParams pageParams, @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(fieldSelectionService.getPage(AvailableDate.class, fields, pageParams));
+        }
+        return ResponseEntity.ok(PageResponse.of(availableDateService.getAllAvailableDates(pageParams), pageParams, AvailableDateResponse::getId));
     }
 
     /*
      * This method handles the request for getting an available date by its id.
      * @param id the id of the available date.
+     * @param fields comma separated fields to return, only those columns are read.
+     * @param ifNoneMatch the entity tag the client already has, answered with 304 if it is still current.
      * @return the available date with the given id.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<AvailableDate> getAvailableDateById(@PathVariable Long id) {
-        return ResponseEntity.ok(availableDateService.getAvailableDateById(id));
+    public ResponseEntity<?> getAvailableDateById(@PathVariable Long id, @RequestParam(required = false) String fields, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String representation = fields == null ? null : fieldSelectionService.getRepresentation(AvailableDate.class, fields);
+        String versions = ETags.withRepresentation(availableDateService.getAvailableDateVersions(id), representation);
+        if (ETags.matches(ifNoneMatch, versions)) {
+            return ETags.notModified(versions);
+        }
+        if (fields != null) {
+            return ETags.ok(fieldSelectionService.getById(AvailableDate.class, id, fields), row -> versions);
+        }
+        return ETags.ok(availableDateService.getAvailableDateById(id), row -> versions);
     }
 
     /*
@@ -66,11 +93,12 @@ public class AvailableDateController {
      * This method handles the request for updating an available date.
      * @param id the id of the available date.
      * @param availableDateRequest the request for updating an available date.
+     * @param ifMatch the entity tag the client has read, the update fails with 412 if it is outdated.
      * @return the updated available date.
      */
     @PutMapping("/{id}")
-    public ResponseEntity<AvailableDate> updateAvailableDate(@PathVariable Long id, @RequestBody AvailableDateRequest availableDateRequest) {
-        return ResponseEntity.ok(availableDateService.updateAvailableDate(id, availableDateRequest));
+    public ResponseEntity<AvailableDate> updateAvailableDate(@PathVariable Long id, @RequestBody AvailableDateRequest availableDateRequest, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return ETags.ok(availableDateService.updateAvailableDate(id, availableDateRequest, ETags.expectedVersion(ifMatch)), row -> availableDateService.getAvailableDateVersions(id));
     }
 
     /*
@@ -82,4 +110,14 @@ public class AvailableDateController {
         availableDateService.deleteAvailableDate(id);
         return ResponseEntity.noContent().build();
     }
+
+    /*
+     * This method handles the request for adding available dates that repeat every week.
+     * @param recurringAvailableDateRequest the doctors, the date range and the days of the week.
+     * @return how many available dates were created and skipped.
+     */
+    @PostMapping("/recurring")
+    public ResponseEntity<RecurringAvailableDateResult> addRecurringAvailableDates(@RequestBody RecurringAvailableDateRequest recurringAvailableDateRequest) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(availableDateService.addRecurringAvailableDates(recurringAvailableDateRequest));
+    }
 }
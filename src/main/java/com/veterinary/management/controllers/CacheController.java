@@ -0,0 +1,34 @@
+/*
+ * This class is the controller for the caches.
+ * 
+ * It has the following methods:
+ * - getCacheStats: This method handles the request for getting the statistics of the caches.
+ * 
+ * It has the following routes:
+ * - GET /api/caches/stats
+ */
+package com.veterinary.management.controllers;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import com.veterinary.management.responses.CacheStatsResponse;
+import com.veterinary.management.services.CacheService;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/caches")
+@RequiredArgsConstructor
+public class CacheController {
+
+    private final CacheService cacheService;
+
+    /*
+     * This method handles the request for getting the statistics of the caches.
+     * @return the size, hit, miss and eviction counts of every cache.
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<List<CacheStatsResponse>> getCacheStats() {
+        return ResponseEntity.ok(cacheService.getCacheStats());
+    }
+}
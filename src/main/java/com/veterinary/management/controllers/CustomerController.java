@@ -8,6 +8,7 @@
  * - deleteCustomer: This method handles the request for deleting a customer.
  * - findByName: This method handles the request for finding a customer by its name.
  * - getAnimalsByCustomerId: This method handles the request for listing all the animals of a customer.
+ * - ingestCustomers: This method handles the request for bulk loading customers with their animals from an NDJSON file.
  * 
  * Routes:
  * - GET /api/customers
@@ -17,20 +18,33 @@
  * - DELETE /api/customers/{id}
  * - GET /api/customers/{id}/animals
  * - GET /api/customers/findByName
+ * - POST /api/customers/ingest
  */
 package com.veterinary.management.controllers;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import com.veterinary.management.models.Animal;
 import com.veterinary.management.models.Customer;
+import com.veterinary.management.models.PurgeTask;
 import com.veterinary.management.requests.CustomerRequest;
+import com.veterinary.management.requests.PageParams;
+import com.veterinary.management.responses.CustomerIngestResult;
+import com.veterinary.management.responses.PageResponse;
+import com.veterinary.management.services.CustomerIngestService;
+import com.veterinary.management.services.FieldSelectionService;
+import com.veterinary.management.services.AnimalService;
 import com.veterinary.management.services.CustomerService;
+import com.veterinary.management.utils.ETags;
 
+import java.io.InputStream;
+import java.net.URI;
 import java.util.List;
+import java.util.Objects;
 
 /*
 * This class is a controller that handles the requests for the customer entity.
@@ -41,15 +55,25 @@ import java.util.List;
 public class CustomerController {
 
     private final CustomerService customerService;
+    private final AnimalService animalService;
+    private final FieldSelectionService fieldSelectionService;
+    private final CustomerIngestService customerIngestService;
 
     /*
-     * This method handles the request for getting all the customers.
+     * This method handles the request for getting one page of the customers, sorted by id.
      * 
-     * @return a list of all the customers.
+     * @param pageParams the cursor, size and sort direction, the nextCursor of a page is the cursor of the next one.
+     * 
+     * @param fields comma separated fields to return, only those columns are read.
+     * 
+     * @return the customers of the page.
      */
     @GetMapping
-    public ResponseEntity<List<Customer>> getAllCustomers() {
-        return ResponseEntity.ok(customerService.getAllCustomers());
+    public ResponseEntity<PageResponse<?>> getAllCustomers(PageParams pageParams, @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(fieldSelectionService.getPage(Customer.class, fields, pageParams));
+        }
+        return ResponseEntity.ok(PageResponse.of(customerService.getAllCustomers(pageParams), pageParams, Customer::getId));
     }
 
     /*
@@ -57,11 +81,28 @@ public class CustomerController {
      * 
      * @param id the id of the customer.
      * 
+     * @param fields comma separated fields to return, only those columns are read.
+     * 
+     * @param ifNoneMatch the entity tag the client already has, answered with 304 if it is still current.
+     * 
      * @return the customer with the given id.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Customer> getCustomerById(@PathVariable Long id) {
-        return ResponseEntity.ok(customerService.getCustomerById(id));
+    public ResponseEntity<?> getCustomerById(@PathVariable Long id, @RequestParam(required = false) String fields, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Long version = customerService.getCustomerVersion(id);
+        String representation = fields == null ? null : fieldSelectionService.getRepresentation(Customer.class, fields);
+        String versions = ETags.withRepresentation(ETags.versions(version), representation);
+        if (ETags.matches(ifNoneMatch, versions)) {
+            return ETags.notModified(versions);
+        }
+        if (fields != null) {
+            return ETags.ok(fieldSelectionService.getById(Customer.class, id, fields), row -> versions);
+        }
+        Customer customer = customerService.getCustomerById(id);
+        if (customer != null && !Objects.equals(customer.getVersion(), version)) {
+            customer = customerService.reloadCustomerById(id);
+        }
+        return ETags.ok(customer, row -> versions);
     }
 
     /*
@@ -83,25 +124,30 @@ public class CustomerController {
      * 
      * @param customerRequest the request for updating a customer.
      * 
+     * @param ifMatch the entity tag the client has read, the update fails with 412 if it is outdated.
+     * 
      * @return the updated customer.
      */
     @PutMapping("/{id}")
-    public ResponseEntity<Customer> updateCustomer(@PathVariable Long id,
-            @RequestBody CustomerRequest customerRequest) {
-        return ResponseEntity.ok(customerService.updateCustomer(id, customerRequest));
+    public ResponseEntity<Customer> updateCustomer(@PathVariable Long id, @RequestBody CustomerRequest customerRequest, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return ETags.ok(customerService.updateCustomer(id, customerRequest, ETags.expectedVersion(ifMatch)), row -> ETags.versions(row.getVersion()));
     }
 
     /*
      * This method handles the request for deleting a customer.
+     * The customer is hidden at once, its animals, vaccines and appointments are purged in the background.
      * 
      * @param id the id of the customer.
      * 
-     * @return a message that confirms the deletion.
+     * @return 202 with the purge task, its progress is at the Location header.
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<String> deleteCustomer(@PathVariable Long id) {
-        customerService.deleteById(id);
-        return ResponseEntity.ok("Customer with id " + id + " has been deleted.");
+    public ResponseEntity<PurgeTask> deleteCustomer(@PathVariable Long id) {
+        PurgeTask purgeTask = customerService.deleteById(id);
+        if (purgeTask == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.accepted().location(URI.create("/api/purges/" + purgeTask.getId())).body(purgeTask);
     }
 
     /*
@@ -110,8 +156,8 @@ public class CustomerController {
      * @param name the name of the customer.
      */
     @GetMapping("/findByName")
-    public ResponseEntity<List<Customer>> findByName(@RequestParam String name) {
-        return ResponseEntity.ok(customerService.findByName(name));
+    public ResponseEntity<List<Customer>> findByName(@RequestParam String name, @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(customerService.findByName(name, limit));
     }
 
     /*
@@ -119,14 +165,23 @@ public class CustomerController {
      */
     @GetMapping("/{id}/animals")
     public ResponseEntity<List<Animal>> getAnimalsByCustomerId(@PathVariable Long id) {
-        Customer customer = customerService.getCustomerById(id);
-
-        if (customer == null) {
+        if (!customerService.existsById(id)) {
             throw new UnsupportedOperationException("There is no customer with the given id");
         }
 
-        return ResponseEntity.ok(customer.getAnimals());
+        return ResponseEntity.ok(animalService.getAnimalsByCustomerId(id));
 
     }
 
+    /*
+     * This method handles the request for bulk loading customers with their animals from an NDJSON file.
+     * 
+     * @param body the file, one customer per line with name, phone, email, address, city and an optional animals array.
+     * 
+     * @return the number of ingested customers and animals and the rejected lines, 503 if too many ingests are running.
+     */
+    @PostMapping("/ingest")
+    public ResponseEntity<CustomerIngestResult> ingestCustomers(InputStream body) {
+        return ResponseEntity.ok(customerIngestService.ingest(body));
+    }
 }
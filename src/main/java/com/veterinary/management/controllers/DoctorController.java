@@ -19,13 +19,21 @@
 package com.veterinary.management.controllers;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import com.veterinary.management.models.Doctor;
+import com.veterinary.management.models.PurgeTask;
 import com.veterinary.management.requests.DoctorRequest ;
+import com.veterinary.management.requests.PageParams;
+import com.veterinary.management.responses.PageResponse;
+import com.veterinary.management.services.FieldSelectionService;
 import com.veterinary.management.services.DoctorService;
+import com.veterinary.management.utils.ETags;
+import java.net.URI;
 import java.util.List;
+import java.util.Objects;
 
 @RestController
 @RequestMapping("/api/doctors")
@@ -33,23 +41,45 @@ import java.util.List;
 public class DoctorController {
 
     private final DoctorService doctorService;
+    private final FieldSelectionService fieldSelectionService;
 
     /*
-     * This method handles the request for getting all the doctors.
+     * This method handles the request for getting one page of the doctors, sorted by id.
+     * @param pageParams the cursor, size and sort direction, the nextCursor of a page is the cursor of the next one.
+     * @param fields comma separated fields to return, only those columns are read.
+     * @return the doctors of the page.
      */
     @GetMapping
-    public ResponseEntity<List<Doctor>> getAllDoctors() {
-        return ResponseEntity.ok(doctorService.getAllDoctors());
+    public ResponseEntity<PageResponse<?>> getAllDoctors(PageParams pageParams, @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(fieldSelectionService.getPage(Doctor.class, fields, pageParams));
+        }
+        return ResponseEntity.ok(PageResponse.of(doctorService.getAllDoctors(pageParams), pageParams, Doctor::getId));
     }
 
     /*
      * This method handles the request for getting a doctor by its id.
      * @param id the id of the doctor.
+     * @param fields comma separated fields to return, only those columns are read.
+     * @param ifNoneMatch the entity tag the client already has, answered with 304 if it is still current.
      * @return the doctor with the given id.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Doctor> getDoctorById(@PathVariable Long id) {
-        return ResponseEntity.ok(doctorService.getDoctorById(id));
+    public ResponseEntity<?> getDoctorById(@PathVariable Long id, @RequestParam(required = false) String fields, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Long version = doctorService.getDoctorVersion(id);
+        String representation = fields == null ? null : fieldSelectionService.getRepresentation(Doctor.class, fields);
+        String versions = ETags.withRepresentation(ETags.versions(version), representation);
+        if (ETags.matches(ifNoneMatch, versions)) {
+            return ETags.notModified(versions);
+        }
+        if (fields != null) {
+            return ETags.ok(fieldSelectionService.getById(Doctor.class, id, fields), row -> versions);
+        }
+        Doctor doctor = doctorService.getDoctorById(id);
+        if (doctor != null && !Objects.equals(doctor.getVersion(), version)) {
+            doctor = doctorService.reloadDoctorById(id);
+        }
+        return ETags.ok(doctor, row -> versions);
     }
 
     /*
@@ -66,21 +96,27 @@ public class DoctorController {
      * This method handles the request for updating a doctor.
      * @param id the id of the doctor.
      * @param doctor the request for updating a doctor.
+     * @param ifMatch the entity tag the client has read, the update fails with 412 if it is outdated.
      * @return the updated doctor.
      */
     @PutMapping("/{id}")
-    public ResponseEntity<Doctor> updateDoctor(@PathVariable Long id, @RequestBody DoctorRequest doctor) {
-        return ResponseEntity.ok(doctorService.updateDoctor(id, doctor));
+    public ResponseEntity<Doctor> updateDoctor(@PathVariable Long id, @RequestBody DoctorRequest doctor, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return ETags.ok(doctorService.updateDoctor(id, doctor, ETags.expectedVersion(ifMatch)), row -> ETags.versions(row.getVersion()));
     }
 
     /*
      * This method handles the request for deleting a doctor by its id.
+     * The doctor is hidden at once, its appointments and available dates are purged in the background.
      * @param id the id of the doctor.
+     * @return 202 with the purge task, its progress is at the Location header.
      */
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<String> deleteDoctor(@PathVariable Long id) {
-        doctorService.deleteById(id);
-        return new ResponseEntity<>("Doctor with id " + id + " has been deleted", HttpStatus.OK);
+    public ResponseEntity<PurgeTask> deleteDoctor(@PathVariable Long id) {
+        PurgeTask purgeTask = doctorService.deleteById(id);
+        if (purgeTask == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.accepted().location(URI.create("/api/purges/" + purgeTask.getId())).body(purgeTask);
     }
 }
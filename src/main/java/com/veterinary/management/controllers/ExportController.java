@@ -0,0 +1,42 @@
+/*
+ * This class is the controller for the exports.
+ * It streams whole tables for the data warehouse.
+ * 
+ * It has the following methods:
+ * - exportTable: This method handles the request for exporting a table as NDJSON or CSV.
+ * 
+ * It has the following routes:
+ * - GET /api/exports/{table}
+ */
+package com.veterinary.management.controllers;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import com.veterinary.management.services.ExportService;
+
+@RestController
+@RequestMapping("/api/exports")
+@RequiredArgsConstructor
+public class ExportController {
+
+    private final ExportService exportService;
+
+    /*
+     * This method handles the request for exporting a table as NDJSON or CSV.
+     * @param table one of customers, animals, vaccines or appointments.
+     * @param format ndjson or csv.
+     * @return the rows of the table, streamed while they are read.
+     */
+    @GetMapping("/{table}")
+    public ResponseEntity<StreamingResponseBody> exportTable(@PathVariable String table, @RequestParam(defaultValue = ExportService.NDJSON) String format) {
+        exportService.validate(table, format);
+        MediaType mediaType = ExportService.CSV.equals(format) ? new MediaType("text", "csv") : MediaType.APPLICATION_NDJSON;
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .header("Content-Disposition", "attachment; filename=\"" + table + "." + format + "\"")
+                .body(outputStream -> exportService.export(table, format, outputStream));
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * This class is the controller for the purges of deleted customers and doctors.
+ * 
+ * It has the following methods:
+ * - getPurgeTask: This method handles the request for getting the progress of a purge.
+ * 
+ * It has the following routes:
+ * - GET /api/purges/{id}
+ */
+package com.veterinary.management.controllers;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import com.veterinary.management.models.PurgeTask;
+import com.veterinary.management.services.PurgeService;
+
+@RestController
+@RequestMapping("/api/purges")
+@RequiredArgsConstructor
+public class PurgeController {
+
+    private final PurgeService purgeService;
+
+    /*
+     * This method handles the request for getting the progress of a purge.
+     * @param id the id of the purge task, returned by the delete request.
+     * @return the status, the current step and the number of rows deleted so far.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<PurgeTask> getPurgeTask(@PathVariable Long id) {
+        PurgeTask purgeTask = purgeService.getTask(id);
+        if (purgeTask == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(purgeTask);
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * This class is the controller for the vaccine reminders.
+ * The scan runs on a schedule, this controller starts it on demand.
+ * 
+ * It has the following methods:
+ * - scanReminders: This method handles the request for writing the reminders of the vaccines expiring soon.
+ * 
+ * It has the following routes:
+ * - POST /api/reminders/scan
+ */
+package com.veterinary.management.controllers;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import com.veterinary.management.responses.ReminderScanResult;
+import com.veterinary.management.services.VaccineReminderService;
+
+@RestController
+@RequestMapping("/api/reminders")
+@RequiredArgsConstructor
+public class ReminderController {
+
+    private final VaccineReminderService vaccineReminderService;
+
+    /*
+     * This method handles the request for writing the reminders of the vaccines expiring soon.
+     * A scan interrupted earlier the same day continues from its checkpoints.
+     * @return the number of partitions, vaccines scanned and reminders created.
+     */
+    @PostMapping("/scan")
+    public ResponseEntity<ReminderScanResult> scanReminders() {
+        return ResponseEntity.ok(vaccineReminderService.scan());
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * This class is the controller for the statistics.
+ * The statistics are read from rollup tables that are kept up to date by every write, not computed from the raw tables.
+ * 
+ * It has the following methods:
+ * - getCoverage: This method handles the request for getting the vaccination coverage by species, breed, vaccine name and month.
+ * - rebuildCoverage: This method handles the request for recomputing the coverage rollups from the raw tables.
+ * 
+ * It has the following routes:
+ * - GET /api/stats/coverage
+ * - POST /api/stats/coverage/rebuild
+ */
+package com.veterinary.management.controllers;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import com.veterinary.management.responses.CoverageResponse;
+import com.veterinary.management.services.CoverageService;
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/stats")
+@RequiredArgsConstructor
+public class StatsController {
+
+    private final CoverageService coverageService;
+
+    /*
+     * This method handles the request for getting the vaccination coverage by species, breed, vaccine name and month.
+     * Every filter is optional, from and to are dates and select the months they fall in.
+     * @return the vaccinations and the animals of every species, breed, vaccine and month.
+     */
+    @GetMapping("/coverage")
+    public ResponseEntity<List<CoverageResponse>> getCoverage(@RequestParam(required = false) String species,
+            @RequestParam(required = false) String breed,
+            @RequestParam(required = false) String vaccineName,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(coverageService.getCoverage(species, breed, vaccineName, from, to));
+    }
+
+    /*
+     * This method handles the request for recomputing the coverage rollups from the raw tables.
+     * Writes to the vaccines and animals wait until it is done.
+     */
+    @PostMapping("/coverage/rebuild")
+    public ResponseEntity<Void> rebuildCoverage() {
+        coverageService.rebuild();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -9,6 +9,7 @@
  * - updateVaccine: This method handles the request for updating a vaccine.
  * - deleteVaccine: This method handles the request for deleting a vaccine.
  * - searchByVaccinationRange: This method handles the request for getting all the vaccines of between two dates.
+ * - importVaccines: This method handles the request for importing vaccine records from a CSV or NDJSON file.
  * 
  * It has the following routes:
  * - GET /api/vaccines
@@ -17,16 +18,26 @@
  * - PUT /api/vaccines/{id}
  * - DELETE /api/vaccines/{id}
  * - GET /api/vaccines/searchByVaccinationRange
+ * - POST /api/vaccines/import
  */
 package com.veterinary.management.controllers;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import com.veterinary.management.models.Vaccine;
 import com.veterinary.management.requests.VaccineRequest;
+import com.veterinary.management.requests.PageParams;
+import com.veterinary.management.responses.VaccineResponse;
+import com.veterinary.management.responses.PageResponse;
+import com.veterinary.management.responses.VaccineImportResult;
+import com.veterinary.management.services.FieldSelectionService;
+import com.veterinary.management.services.VaccineImportService;
 import com.veterinary.management.services.VaccineService;
+import com.veterinary.management.utils.ETags;
+import java.io.InputStream;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -37,23 +48,41 @@ import java.util.List;
 public class VaccineController {
 
     private final VaccineService vaccineService;
+    private final FieldSelectionService fieldSelectionService;
+    private final VaccineImportService vaccineImportService;
 
     /*
-     * This method handles the request for getting all the vaccines.
+     * This method handles the request for getting one page of the vaccines, sorted by id.
+     * @param pageParams the cursor, size and sort direction, the nextCursor of a page is the cursor of the next one.
+     * @param fields comma separated fields to return, only those columns are read.
+     * @return the vaccines of the page.
      */
     @GetMapping
-    public ResponseEntity<List<Vaccine>> getAllVaccines() {
-        return new ResponseEntity<>(vaccineService.getAllVaccines(), HttpStatus.OK);
+    public ResponseEntity<PageResponse<?>> getAllVaccines(PageParams pageParams, @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(fieldSelectionService.getPage(Vaccine.class, fields, pageParams));
+        }
+        return new ResponseEntity<>(PageResponse.of(vaccineService.getAllVaccines(pageParams), pageParams, VaccineResponse::getId), HttpStatus.OK);
     }
 
     /*
      * This method handles the request for getting a vaccine by its id.
      * @param id the id of the vaccine.
+     * @param fields comma separated fields to return, only those columns are read.
+     * @param ifNoneMatch the entity tag the client already has, answered with 304 if it is still current.
      * @return the vaccine with the given id.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Vaccine> getVaccineById(@PathVariable Long id) {
-        return new ResponseEntity<>(vaccineService.getVaccineById(id), HttpStatus.OK);
+    public ResponseEntity<?> getVaccineById(@PathVariable Long id, @RequestParam(required = false) String fields, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String representation = fields == null ? null : fieldSelectionService.getRepresentation(Vaccine.class, fields);
+        String versions = ETags.withRepresentation(vaccineService.getVaccineVersions(id), representation);
+        if (ETags.matches(ifNoneMatch, versions)) {
+            return ETags.notModified(versions);
+        }
+        if (fields != null) {
+            return ETags.ok(fieldSelectionService.getById(Vaccine.class, id, fields), row -> versions);
+        }
+        return ETags.ok(vaccineService.getVaccineById(id), row -> versions);
     }
 
     /*
@@ -70,11 +99,12 @@ public class VaccineController {
      * This method handles the request for updating a vaccine.
      * @param id the id of the vaccine.
      * @param vaccine the request for updating a vaccine.
+     * @param ifMatch the entity tag the client has read, the update fails with 412 if it is outdated.
      * @return the updated vaccine.
      */
     @PutMapping("/{id}")
-    public ResponseEntity<Vaccine> updateVaccine(@PathVariable Long id, @RequestBody VaccineRequest vaccine) {
-        return new ResponseEntity<>(vaccineService.updateVaccine(id, vaccine), HttpStatus.OK);
+    public ResponseEntity<Vaccine> updateVaccine(@PathVariable Long id, @RequestBody VaccineRequest vaccine, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return ETags.ok(vaccineService.updateVaccine(id, vaccine, ETags.expectedVersion(ifMatch)), row -> vaccineService.getVaccineVersions(id));
     }
 
     /*
@@ -94,9 +124,21 @@ public class VaccineController {
      * Değerlendirme Formu: 23
      */
     @GetMapping("/searchByVaccinationRange")
-    public ResponseEntity<List<Vaccine>> findVaccinesByApplicationDateBetween(@RequestParam LocalDate startDate, @RequestParam LocalDate endDate) {
+    public ResponseEntity<List<VaccineResponse>> findVaccinesByApplicationDateBetween(@RequestParam LocalDate startDate, @RequestParam LocalDate endDate) {
 
-        List<Vaccine> vaccineListSearchByVaccinationRange = vaccineService.findVaccinesByApplicationDateBetween(startDate, endDate);
+        List<VaccineResponse> vaccineListSearchByVaccinationRange = vaccineService.findVaccinesByApplicationDateBetween(startDate, endDate);
         return ResponseEntity.ok().body(vaccineListSearchByVaccinationRange);
     }
-}
\ No newline at end of file
+
+    /*
+     * This method handles the request for importing vaccine records from a CSV or NDJSON file.
+     * The body is the file, one record per line with name, applicationDate, expirationDate and animalId,
+     * CSV files start with a header line.
+     * @param format csv or ndjson.
+     * @return the number of imported and rejected rows and the error of every rejected row.
+     */
+    @PostMapping("/import")
+    public ResponseEntity<VaccineImportResult> importVaccines(InputStream body, @RequestParam(defaultValue = VaccineImportService.NDJSON) String format) {
+        return ResponseEntity.ok(vaccineImportService.importVaccines(body, format));
+    }
+}
@@ -0,0 +1,16 @@
+package com.veterinary.management.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/*
+ * This exception is thrown when a write conflicts with the current state of a resource,
+ * for example when a doctor already has an appointment at the requested date.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ConflictException extends RuntimeException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+}
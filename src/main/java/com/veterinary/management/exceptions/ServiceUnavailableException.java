@@ -0,0 +1,16 @@
+package com.veterinary.management.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/*
+ * This exception is thrown when the server is too busy to take a request now,
+ * for example when the maximum number of bulk uploads is already running. The client should retry later.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ServiceUnavailableException extends RuntimeException {
+
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
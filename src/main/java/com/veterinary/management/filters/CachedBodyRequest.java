@@ -0,0 +1,94 @@
+package com.veterinary.management.filters;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+
+/*
+ * This class reads the start of a request body so a filter can look at it, and gives the whole body to the next filters.
+ * At most limit bytes are held in memory, a longer body is read on from the original stream.
+ */
+class CachedBodyRequest extends HttpServletRequestWrapper {
+
+    private final byte[] head;
+    private final boolean complete;
+    private ServletInputStream inputStream;
+
+    CachedBodyRequest(HttpServletRequest request, int limit) throws IOException {
+        super(request);
+        byte[] bytes = request.getInputStream().readNBytes(limit + 1);
+        this.complete = bytes.length <= limit;
+        this.head = bytes;
+    }
+
+    /*
+     * This method returns true if the whole body was read, the body is then returned by getBody
+     */
+    boolean isComplete() {
+        return complete;
+    }
+
+    byte[] getBody() {
+        return head;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() throws IOException {
+        if (inputStream == null) {
+            inputStream = wrap(complete ? new ByteArrayInputStream(head)
+                    : new SequenceInputStream(new ByteArrayInputStream(head), super.getInputStream()));
+        }
+        return inputStream;
+    }
+
+    private static ServletInputStream wrap(InputStream body) {
+        return new ServletInputStream() {
+
+            @Override
+            public int read() throws IOException {
+                return body.read();
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                return body.read(buffer, offset, length);
+            }
+
+            @Override
+            public boolean isFinished() {
+                try {
+                    return body.available() == 0;
+                } catch (IOException e) {
+                    return true;
+                }
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+                throw new UnsupportedOperationException("Asynchronous reads are not supported");
+            }
+        };
+    }
+
+    @Override
+    public BufferedReader getReader() throws IOException {
+        String encoding = getCharacterEncoding();
+        Charset charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+        return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+    }
+}
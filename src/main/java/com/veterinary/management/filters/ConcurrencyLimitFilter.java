@@ -0,0 +1,61 @@
+package com.veterinary.management.filters;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/*
+ * This filter limits the number of requests running at once in the virtual thread mode.
+ * 
+ * Tomcat no longer caps concurrency with its thread pool when requests run on virtual threads,
+ * so a burst would otherwise wait on the connection pool until the connection timeout.
+ * There are as many permits as pooled connections plus a small headroom, so at most the headroom waits on the pool.
+ * Requests without a permit wait up to the acquire timeout and are then answered with 503.
+ */
+@Component
+@Profile("virtual")
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final Duration acquireTimeout;
+
+    public ConcurrencyLimitFilter(@Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+            @Value("${veterinary.virtual.headroom:4}") int headroom,
+            @Value("${veterinary.virtual.acquire-timeout:2s}") Duration acquireTimeout) {
+        this.permits = new Semaphore(poolSize + headroom);
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            response.setHeader("Retry-After", "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Too many concurrent requests");
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.veterinary.management.filters;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/*
+ * This filter makes POST and PUT requests with an Idempotency-Key header safe to retry.
+ * 
+ * The first request with a key runs and its successful response is stored under the key. A retry with the same key
+ * and the same method, path and body gets the stored response back without running the write again,
+ * a retry that arrives while the first request is still running waits for its response.
+ * A key reused for a different request is refused with 422. Failed responses are not stored, so the client can retry them.
+ * 
+ * The store is a Caffeine cache bounded by the size of the stored responses and expiring after the time to live.
+ * It is local to the node, retries routed to another node run again.
+ * Requests with a body larger than max-body-size, such as bulk uploads, are not covered.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final String[] REPLAYED_HEADERS = { HttpHeaders.LOCATION, HttpHeaders.ETAG };
+
+    private final Cache<String, Entry> responses;
+    private final int maxBodySize;
+    private final Duration waitTimeout;
+
+    public IdempotencyFilter(@Value("${veterinary.idempotency.max-size:64MB}") DataSize maxSize,
+            @Value("${veterinary.idempotency.time-to-live:24h}") Duration timeToLive,
+            @Value("${veterinary.idempotency.max-body-size:1MB}") DataSize maxBodySize,
+            @Value("${veterinary.idempotency.wait-timeout:10s}") Duration waitTimeout) {
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String key, Entry entry) -> entry.weight())
+                .expireAfterWrite(timeToLive)
+                .build();
+        this.maxBodySize = (int) maxBodySize.toBytes();
+        this.waitTimeout = waitTimeout;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        return !("POST".equals(method) || "PUT".equals(method)) || request.getHeader(IDEMPOTENCY_KEY) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String key = request.getHeader(IDEMPOTENCY_KEY).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), IDEMPOTENCY_KEY + " must have 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request, maxBodySize);
+        if (!cachedRequest.isComplete()) {
+            filterChain.doFilter(cachedRequest, response);
+            return;
+        }
+        byte[] fingerprint = fingerprint(cachedRequest);
+
+        while (true) {
+            Entry entry = new Entry(fingerprint, new CompletableFuture<>());
+            Entry existing = responses.asMap().putIfAbsent(key, entry);
+            if (existing == null) {
+                execute(key, entry, cachedRequest, response, filterChain);
+                return;
+            }
+            if (!Arrays.equals(existing.fingerprint(), fingerprint)) {
+                response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(), IDEMPOTENCY_KEY + " was already used for a different request");
+                return;
+            }
+            StoredResponse stored;
+            try {
+                stored = existing.response().get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                response.sendError(HttpStatus.CONFLICT.value(), "A request with the same " + IDEMPOTENCY_KEY + " is still running");
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException(e);
+            } catch (ExecutionException e) {
+                throw new ServletException(e.getCause());
+            }
+            if (stored != null) {
+                replay(stored, response);
+                return;
+            }
+            // the first request failed and released the key, try to take it
+        }
+    }
+
+    /*
+     * This method runs the request and stores its response if it succeeded, otherwise the key is released
+     */
+    private void execute(String key, Entry entry, HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        StoredResponse stored = null;
+        try {
+            filterChain.doFilter(request, responseWrapper);
+            int status = responseWrapper.getStatus();
+            if (status >= 200 && status < 300 && responseWrapper.getContentSize() <= maxBodySize && !request.isAsyncStarted()) {
+                Map<String, String> headers = new LinkedHashMap<>();
+                for (String name : REPLAYED_HEADERS) {
+                    String value = responseWrapper.getHeader(name);
+                    if (value != null) {
+                        headers.put(name, value);
+                    }
+                }
+                stored = new StoredResponse(status, responseWrapper.getContentType(), headers, responseWrapper.getContentAsByteArray());
+            }
+        } finally {
+            if (stored != null) {
+                entry.response().complete(stored);
+                // the weight is computed when the entry is written, write it again now that it holds the body
+                responses.asMap().replace(key, entry, new Entry(entry.fingerprint(), entry.response()));
+            } else {
+                responses.asMap().remove(key, entry);
+                entry.response().complete(null);
+            }
+            responseWrapper.copyBodyToResponse();
+        }
+    }
+
+    private static void replay(StoredResponse stored, HttpServletResponse response) throws IOException {
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        stored.headers().forEach(response::setHeader);
+        response.setHeader(IDEMPOTENT_REPLAYED, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    /*
+     * This method returns a hash of the method, the path, the query and the body of the request
+     */
+    private static byte[] fingerprint(CachedBodyRequest request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((request.getMethod() + " " + request.getRequestURI() + "?" + request.getQueryString() + "\n").getBytes(StandardCharsets.UTF_8));
+            digest.update(request.getBody());
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record StoredResponse(int status, String contentType, Map<String, String> headers, byte[] body) {
+    }
+
+    private record Entry(byte[] fingerprint, CompletableFuture<StoredResponse> response) {
+
+        /*
+         * The weight of an entry is the size of its stored response, a running request weighs only its key
+         */
+        int weight() {
+            StoredResponse stored = response.getNow(null);
+            return 256 + (stored == null ? 0 : stored.body().length);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.veterinary.management.indexes;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import com.veterinary.management.repositories.DoctorDay;
+import com.veterinary.management.responses.SlotResponse;
+
+/*
+ * This class holds the available days and the booked appointments of many doctors for a range of dates.
+ * 
+ * Available days are kept in date order and the appointments of every doctor in time order,
+ * so the earliest free slot is found by walking the days forward and probing each slot with one range lookup.
+ * A slot is free if no appointment of the doctor overlaps it, appointments are assumed to last one slot.
+ */
+public class OccupancyMap {
+
+    private final LocalTime dayStart;
+    private final LocalTime dayEnd;
+    private final Duration slotLength;
+    private final TreeMap<LocalDate, List<DoctorDay>> doctorsByDate = new TreeMap<>();
+    private final Map<Long, TreeSet<LocalDateTime>> appointmentsByDoctor = new HashMap<>();
+
+    public OccupancyMap(LocalTime dayStart, LocalTime dayEnd, Duration slotLength) {
+        if (slotLength.isZero() || slotLength.isNegative()) {
+            throw new IllegalArgumentException("Slot length must be positive");
+        }
+        this.dayStart = dayStart;
+        this.dayEnd = dayEnd;
+        this.slotLength = slotLength;
+    }
+
+    /*
+     * This method adds a day the doctor is available on
+     * @param DoctorDay doctorDay
+     */
+    public void addAvailability(DoctorDay doctorDay) {
+        doctorsByDate.computeIfAbsent(doctorDay.getDate(), date -> new ArrayList<>()).add(doctorDay);
+    }
+
+    /*
+     * This method adds an appointment of the doctor
+     * @param Long doctorId
+     * @param LocalDateTime date
+     */
+    public void addAppointment(Long doctorId, LocalDateTime date) {
+        appointmentsByDoctor.computeIfAbsent(doctorId, id -> new TreeSet<>()).add(date);
+    }
+
+    /*
+     * This method returns the earliest free slot at or after the given time, or null if there is none
+     * @param LocalDateTime after
+     * @return SlotResponse
+     */
+    public SlotResponse findEarliestFreeSlot(LocalDateTime after) {
+        for (Map.Entry<LocalDate, List<DoctorDay>> entry : doctorsByDate.tailMap(after.toLocalDate(), true).entrySet()) {
+            SlotResponse earliest = null;
+            for (DoctorDay doctorDay : entry.getValue()) {
+                LocalDateTime slot = findFreeSlotOnDay(doctorDay.getDoctorId(), entry.getKey(), after);
+                if (slot != null && (earliest == null || slot.isBefore(earliest.getDate()))) {
+                    earliest = new SlotResponse(doctorDay.getDoctorId(), doctorDay.getDoctorName(), doctorDay.getCity(), slot);
+                }
+            }
+            if (earliest != null) {
+                return earliest;
+            }
+        }
+        return null;
+    }
+
+    private LocalDateTime findFreeSlotOnDay(Long doctorId, LocalDate date, LocalDateTime after) {
+        LocalDateTime slot = date.atTime(dayStart);
+        LocalDateTime lastSlot = date.atTime(dayEnd).minus(slotLength);
+        if (after.isAfter(slot)) {
+            long length = slotLength.toNanos();
+            long steps = (Duration.between(slot, after).toNanos() + length - 1) / length;
+            slot = slot.plusNanos(steps * length);
+        }
+        TreeSet<LocalDateTime> appointments = appointmentsByDoctor.get(doctorId);
+        while (!slot.isAfter(lastSlot)) {
+            if (appointments == null || appointments.subSet(slot.minus(slotLength), false, slot.plus(slotLength), false).isEmpty()) {
+                return slot;
+            }
+            slot = slot.plus(slotLength);
+        }
+        return null;
+    }
+}
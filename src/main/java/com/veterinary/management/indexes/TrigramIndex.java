@@ -0,0 +1,181 @@
+package com.veterinary.management.indexes;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/*
+ * This class is an in-memory substring index over names.
+ * 
+ * Names are normalized to lower case without diacritics, so "İstanbul", "istanbul" and "ISTANBUL" match each other,
+ * and every name is split into trigrams. A query only verifies the names that contain all of its trigrams,
+ * queries shorter than three characters fall back to a scan.
+ * Results are ranked exact match first, then prefix, then word prefix, then any substring, shorter names first.
+ */
+public class TrigramIndex {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private final Map<Long, String> names = new HashMap<>();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /*
+     * This method returns the name in lower case without diacritics
+     * @param String name
+     * @return String
+     */
+    public static String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(name, Normalizer.Form.NFD);
+        return MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT).replace('\u0131', 'i').trim();
+    }
+
+    /*
+     * This method adds the name of the id, or replaces it if the id is already indexed
+     * @param Long id
+     * @param String name
+     */
+    public void put(Long id, String name) {
+        String normalized = normalize(name);
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            names.put(id, normalized);
+            for (String trigram : trigrams(normalized)) {
+                postings.computeIfAbsent(trigram, key -> new HashSet<>()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /*
+     * This method removes the id from the index
+     * @param Long id
+     */
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /*
+     * This method returns the ids of the names that contain the query, best matches first
+     * @param String query
+     * @param int limit
+     * @return List<Long>
+     */
+    public List<Long> search(String query, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        lock.readLock().lock();
+        try {
+            List<Long> matches = new ArrayList<>();
+            for (Long id : candidates(normalized)) {
+                if (names.get(id).contains(normalized)) {
+                    matches.add(id);
+                }
+            }
+            matches.sort(Comparator.<Long>comparingInt(id -> rank(names.get(id), normalized))
+                    .thenComparingInt(id -> names.get(id).length())
+                    .thenComparing(Comparator.naturalOrder()));
+            return new ArrayList<>(matches.subList(0, Math.min(limit, matches.size())));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /*
+     * This method returns the number of indexed names
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return names.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Set<Long> candidates(String normalized) {
+        if (normalized.length() < 3) {
+            return names.keySet();
+        }
+        List<Set<Long>> sets = new ArrayList<>();
+        for (String trigram : innerTrigrams(normalized)) {
+            Set<Long> ids = postings.get(trigram);
+            if (ids == null) {
+                return Set.of();
+            }
+            sets.add(ids);
+        }
+        sets.sort(Comparator.comparingInt(Set::size));
+        Set<Long> candidates = new HashSet<>(sets.get(0));
+        for (int i = 1; i < sets.size() && !candidates.isEmpty(); i++) {
+            candidates.retainAll(sets.get(i));
+        }
+        return candidates;
+    }
+
+    private void removeLocked(Long id) {
+        String old = names.remove(id);
+        if (old == null) {
+            return;
+        }
+        for (String trigram : trigrams(old)) {
+            Set<Long> ids = postings.get(trigram);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(trigram);
+                }
+            }
+        }
+    }
+
+    private static int rank(String name, String query) {
+        if (name.equals(query)) {
+            return 0;
+        }
+        if (name.startsWith(query)) {
+            return 1;
+        }
+        if (name.contains(" " + query)) {
+            return 2;
+        }
+        return 3;
+    }
+
+    /*
+     * The trigrams of a name, padded so that the start and the end of the name are trigrams too
+     */
+    private static Set<String> trigrams(String normalized) {
+        return innerTrigrams("  " + normalized + " ");
+    }
+
+    private static Set<String> innerTrigrams(String text) {
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            trigrams.add(text.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+}
@@ -0,0 +1,110 @@
+package com.veterinary.management.indexes;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.veterinary.management.repositories.NameExpiry;
+import com.veterinary.management.repositories.VaccineRepository;
+
+/*
+ * This class caches the latest expiration date of every vaccine name of an animal.
+ * 
+ * With the cache, the duplicate vaccine check of an animal seen recently is a map lookup.
+ * The entry of an animal is loaded with one grouped query on first use, raised when a vaccine is added,
+ * and evicted when a vaccine of the animal is updated or deleted, since the latest date may go down.
+ * Vaccines written by another node, by the import or by hand are not seen until the entry expires,
+ * so entries expire a fixed time after they are loaded, however often they are read.
+ * The cache is off unless veterinary.vaccines.expiry-cache.enabled is true, the check then probes
+ * the (animal_id, name, expiration_date) index.
+ */
+@Component
+public class VaccineExpiryCache {
+
+    private final VaccineRepository vaccineRepository;
+    private final boolean enabled;
+    private final Cache<Long, Map<String, LocalDate>> latestExpiries;
+
+    public VaccineExpiryCache(VaccineRepository vaccineRepository,
+            @Value("${veterinary.vaccines.expiry-cache.enabled:false}") boolean enabled,
+            @Value("${veterinary.vaccines.expiry-cache.maximum-size:10000}") long maximumSize,
+            @Value("${veterinary.vaccines.expiry-cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.vaccineRepository = vaccineRepository;
+        this.enabled = enabled;
+        this.latestExpiries = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+    }
+
+    /*
+     * This method returns true if the cache is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /*
+     * This method returns true if the animal has a vaccine with the given name that expires after the given date
+     * @param Long animalId
+     * @param String name
+     * @param LocalDate date
+     * @return boolean
+     */
+    public boolean hasVaccineExpiringAfter(Long animalId, String name, LocalDate date) {
+        if (animalId == null || name == null || date == null) {
+            return false;
+        }
+        LocalDate latestExpiry = latestExpiries.get(animalId, this::load).get(name);
+        return latestExpiry != null && latestExpiry.isAfter(date);
+    }
+
+    /*
+     * This method raises the latest expiration date of the vaccine name if the animal is cached.
+     * Animals that are not cached are skipped, they will read the new vaccine from the database on first use.
+     * The entry is changed in place, so a local write does not push back its expiry.
+     * @param Long animalId
+     * @param String name
+     * @param LocalDate expirationDate
+     */
+    public void add(Long animalId, String name, LocalDate expirationDate) {
+        if (animalId == null || name == null || expirationDate == null) {
+            return;
+        }
+        Map<String, LocalDate> expiries = latestExpiries.getIfPresent(animalId);
+        if (expiries != null) {
+            expiries.merge(name, expirationDate, (current, added) -> added.isAfter(current) ? added : current);
+        }
+    }
+
+    /*
+     * This method drops the cached dates of the animal
+     * @param Long animalId
+     */
+    public void evict(Long animalId) {
+        if (animalId != null) {
+            latestExpiries.invalidate(animalId);
+        }
+    }
+
+    /*
+     * This method drops the cached dates of every animal
+     */
+    public void evictAll() {
+        latestExpiries.invalidateAll();
+    }
+
+    private Map<String, LocalDate> load(Long animalId) {
+        Map<String, LocalDate> expiries = new ConcurrentHashMap<>();
+        for (NameExpiry nameExpiry : vaccineRepository.findLatestExpiriesByAnimalId(animalId)) {
+            expiries.put(nameExpiry.getName(), nameExpiry.getExpirationDate());
+        }
+        return expiries;
+    }
+}
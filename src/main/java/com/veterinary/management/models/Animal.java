@@ -8,9 +8,12 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.ColumnDefault;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -30,10 +33,17 @@ import java.util.List;
 public class Animal {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    //Ids come from the sequence 50 at a time so that inserts can be batched, see migrations.sql
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "animals_id_seq")
+    @SequenceGenerator(name = "animals_id_seq", sequenceName = "animals_id_seq", allocationSize = 50)
     @Column(nullable = false, unique = true)
     private Long id;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @Column(nullable = false)
     private String name;
 
@@ -1,13 +1,16 @@
 package com.veterinary.management.models;
 
-import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.SQLRestriction;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 import lombok.Data;
@@ -20,13 +23,21 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 @NoArgsConstructor
 @Entity
 @Table(name = "customers")
+@SQLRestriction("deleted = false")
 public class Customer {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    //Ids come from the sequence 50 at a time so that inserts can be batched, see migrations.sql
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customers_id_seq")
+    @SequenceGenerator(name = "customers_id_seq", sequenceName = "customers_id_seq", allocationSize = 50)
     @Column(nullable = false, unique = true)
     private Long id;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @Column(nullable = false)
     private String name;
 
@@ -42,7 +53,13 @@ public class Customer {
     @Column(nullable = false)
     private String city;
 
-    @OneToMany(mappedBy = "customer", cascade = CascadeType.REMOVE)
+    //A deleted customer is hidden at once, its rows are purged in the background
+    @ColumnDefault("false")
+    @Column(nullable = false)
+    @JsonIgnore
+    private boolean deleted;
+
+    @OneToMany(mappedBy = "customer")
     @JsonIgnore
     private List<Animal> animals;
 
@@ -1,13 +1,15 @@
 package com.veterinary.management.models;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
-import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.SQLRestriction;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -26,6 +28,7 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Table(name = "doctors")
+@SQLRestriction("deleted = false")
 public class Doctor {
 
     @Id
@@ -33,6 +36,11 @@ public class Doctor {
     @Column(nullable = false, unique = true)
     private Long id;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @Column(nullable = false)
     private String name;
 
@@ -48,11 +56,17 @@ public class Doctor {
     @Column(nullable = false)
     private String city;
 
-    @OneToMany(mappedBy = "doctor", cascade = CascadeType.REMOVE)
+    //A deleted doctor is hidden at once, its rows are purged in the background
+    @ColumnDefault("false")
+    @Column(nullable = false)
+    @JsonIgnore
+    private boolean deleted;
+
+    @OneToMany(mappedBy = "doctor")
     @JsonIgnore
     private List<AvailableDate> availableDates;
 
-    @OneToMany(mappedBy = "doctor", cascade = CascadeType.REMOVE)
+    @OneToMany(mappedBy = "doctor")
     @JsonIgnore
     private List<Appointment> appointments;
 
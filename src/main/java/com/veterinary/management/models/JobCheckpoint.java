@@ -0,0 +1,50 @@
+package com.veterinary.management.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Data;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/*
+ * The progress of one partition of a batch job run.
+ * lastId is the last row the partition has processed, a restarted run continues after it.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "job_checkpoints", uniqueConstraints = @UniqueConstraint(name = "uk_job_checkpoints_partition", columnNames = {"job", "run_date", "partition_key"}))
+public class JobCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(nullable = false, unique = true)
+    private Long id;
+
+    @Column(nullable = false)
+    private String job;
+
+    @Column(name = "run_date", nullable = false)
+    private LocalDate runDate;
+
+    @Column(name = "partition_key", nullable = false)
+    private String partitionKey;
+
+    @Column(nullable = false)
+    private Long lastId;
+
+    @Column(nullable = false)
+    private boolean completed;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+}
@@ -0,0 +1,80 @@
+package com.veterinary.management.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/*
+ * A notification waiting to be sent to the owner of an animal.
+ * It is written in the transaction of the change it announces and sent later by the notification dispatcher,
+ * so a notification exists exactly when its change was committed.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "outbox_messages", indexes = {
+        @Index(name = "idx_outbox_messages_status_available", columnList = "status, available_at"),
+        @Index(name = "idx_outbox_messages_aggregate", columnList = "aggregate_type, aggregate_id") })
+public class OutboxMessage {
+
+    public static final String PENDING = "PENDING";
+    public static final String SENT = "SENT";
+    public static final String FAILED = "FAILED";
+    public static final String CANCELLED = "CANCELLED";
+
+    public static final String APPOINTMENT_CONFIRMATION = "APPOINTMENT_CONFIRMATION";
+    public static final String APPOINTMENT_REMINDER = "APPOINTMENT_REMINDER";
+    public static final String APPOINTMENT_CANCELLATION = "APPOINTMENT_CANCELLATION";
+    public static final String VACCINE_CONFIRMATION = "VACCINE_CONFIRMATION";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(nullable = false, unique = true)
+    private Long id;
+
+    @Column(nullable = false)
+    private String type;
+
+    @Column(name = "aggregate_type", nullable = false)
+    private String aggregateType;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+
+    @Column(name = "animal_id", nullable = false)
+    private Long animalId;
+
+    //The email of the owner, read when the message is written
+    private String recipient;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(nullable = false)
+    private String status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    //The message is not sent before this time, it is also moved forward while a dispatcher holds the message and between retries
+    @Column(name = "available_at", nullable = false)
+    private LocalDateTime availableAt;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime sentAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+}
@@ -0,0 +1,70 @@
+package com.veterinary.management.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/*
+ * The purge of a deleted customer or doctor and of the rows that depend on it.
+ * It is written in the transaction that marks the record as deleted and moved forward by the purge job a chunk at a time,
+ * every chunk updates the progress in its own transaction.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "purge_tasks", indexes = @Index(name = "idx_purge_tasks_status", columnList = "status"))
+public class PurgeTask {
+
+    public static final String CUSTOMER = "customer";
+    public static final String DOCTOR = "doctor";
+
+    public static final String PENDING = "PENDING";
+    public static final String RUNNING = "RUNNING";
+    public static final String DONE = "DONE";
+    public static final String FAILED = "FAILED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(nullable = false, unique = true)
+    private Long id;
+
+    @Column(name = "entity_type", nullable = false)
+    private String entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Column(nullable = false)
+    private String status;
+
+    //The kind of rows being deleted at the moment
+    private String step;
+
+    @Column(nullable = false)
+    private long deletedRows;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    //Moved forward by every chunk, a RUNNING task that has not moved for the lease is taken over
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    private LocalDateTime finishedAt;
+
+}
@@ -6,9 +6,12 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.ColumnDefault;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -22,7 +25,9 @@ import java.time.LocalDate;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "vaccines")
+@Table(name = "vaccines", indexes = {
+        @Index(name = "idx_vaccines_animal_name_expiration", columnList = "animal_id, name, expiration_date"),
+        @Index(name = "idx_vaccines_expiration_id", columnList = "expiration_date, id") })
 public class Vaccine {
 
     @Id
@@ -30,6 +35,11 @@ public class Vaccine {
     @Column(nullable = false, unique = true)
     private Long id;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @Column(nullable = false)
     private String name;
 
@@ -0,0 +1,47 @@
+package com.veterinary.management.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Data;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/*
+ * A reminder that a vaccine of an animal expires soon, written by the reminder scan job.
+ * There is at most one reminder per vaccine and expiration date, so rescanning a window writes nothing twice.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "vaccine_reminders", uniqueConstraints = @UniqueConstraint(name = "uk_vaccine_reminders_vaccine_expiration", columnNames = {"vaccine_id", "expiration_date"}))
+public class VaccineReminder {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(nullable = false, unique = true)
+    private Long id;
+
+    @Column(name = "vaccine_id", nullable = false)
+    private Long vaccineId;
+
+    @Column(name = "animal_id", nullable = false)
+    private Long animalId;
+
+    @Column(nullable = false)
+    private String vaccineName;
+
+    @Column(name = "expiration_date", nullable = false)
+    private LocalDate expirationDate;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+}
@@ -0,0 +1,41 @@
+package com.veterinary.management.notifications;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+/*
+ * This sender posts every notification as JSON to veterinary.notifications.http.url,
+ * a mail gateway or a local stub in tests. Any response other than 2xx fails the delivery.
+ * The Idempotency-Key header carries the id of the notification so the receiver can drop retried duplicates.
+ */
+@Component
+@ConditionalOnProperty(name = "veterinary.notifications.sender", havingValue = "http")
+public class HttpNotificationSender implements NotificationSender {
+
+    private final RestClient restClient;
+
+    public HttpNotificationSender(RestClient.Builder restClientBuilder,
+            @Value("${veterinary.notifications.http.url}") String url,
+            @Value("${veterinary.notifications.http.timeout:5s}") Duration timeout) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout((int) timeout.toMillis());
+        requestFactory.setReadTimeout((int) timeout.toMillis());
+        this.restClient = restClientBuilder.baseUrl(url).requestFactory(requestFactory).build();
+    }
+
+    @Override
+    public void send(Notification notification) {
+        restClient.post()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Idempotency-Key", "notification-" + notification.id())
+                .body(notification)
+                .retrieve()
+                .toBodilessEntity();
+    }
+}
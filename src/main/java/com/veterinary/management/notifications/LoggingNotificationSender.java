@@ -0,0 +1,21 @@
+package com.veterinary.management.notifications;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/*
+ * This sender only writes the notifications to the log, for development and tests.
+ */
+@Component
+@ConditionalOnProperty(name = "veterinary.notifications.sender", havingValue = "log", matchIfMissing = true)
+public class LoggingNotificationSender implements NotificationSender {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggingNotificationSender.class);
+
+    @Override
+    public void send(Notification notification) {
+        log.info("Notification {} {} to {}: {}", notification.id(), notification.type(), notification.recipient(), notification.payload());
+    }
+}
@@ -0,0 +1,11 @@
+package com.veterinary.management.notifications;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+/*
+ * This record is a notification handed to a sender.
+ * id is the id of the outbox message, it stays the same across retries so receivers can drop duplicates.
+ * payload is a JSON object with the details of the appointment or vaccine.
+ */
+public record Notification(Long id, String type, String recipient, @JsonRawValue String payload) {
+}
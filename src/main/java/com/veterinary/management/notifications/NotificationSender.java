@@ -0,0 +1,17 @@
+package com.veterinary.management.notifications;
+
+/*
+ * This interface delivers notifications to the owners of the animals.
+ * The implementation is picked with veterinary.notifications.sender, log by default.
+ * send may be called again with the same notification after a failure or a restart, and from several threads at once.
+ */
+public interface NotificationSender {
+
+    /*
+     * This method delivers the notification, it returns normally only when the delivery succeeded
+     * @param Notification notification
+     * throws Exception if the delivery failed, the notification is retried later
+     */
+    void send(Notification notification) throws Exception;
+
+}
@@ -0,0 +1,14 @@
+package com.veterinary.management.repositories;
+
+import java.time.LocalDate;
+
+/*
+ * This projection holds the latest expiration date of the vaccines with one name of one animal.
+ */
+public interface AnimalNameExpiry {
+
+    Long getAnimalId();
+    String getName();
+    LocalDate getExpirationDate();
+
+}
@@ -1,14 +1,45 @@
 package com.veterinary.management.repositories;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import com.veterinary.management.models.Animal;
+import com.veterinary.management.responses.AnimalResponse;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface AnimalRepository extends JpaRepository<Animal, Long> {
     
     List<Animal> findByNameContaining(String name);
     List<Animal> findByCustomerId(Long id);
-    
+
+    @EntityGraph(attributePaths = "customer")
+    List<Animal> findWithCustomerByCustomerId(Long customerId);
+
+    @Query("select a.id from Animal a where a.id in :ids")
+    List<Long> findIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select new com.veterinary.management.responses.AnimalResponse(a.id, a.name, a.species, a.breed, a.gender, a.colour, a.birthDate, c.id, c.name) from Animal a left join a.customer c where a.id > :id")
+    List<AnimalResponse> findResponsesByIdGreaterThan(@Param("id") Long id, Pageable pageable);
+
+    @Query("select new com.veterinary.management.responses.AnimalResponse(a.id, a.name, a.species, a.breed, a.gender, a.colour, a.birthDate, c.id, c.name) from Animal a left join a.customer c where a.id < :id")
+    List<AnimalResponse> findResponsesByIdLessThan(@Param("id") Long id, Pageable pageable);
+
+    @Query("select new com.veterinary.management.responses.AnimalResponse(a.id, a.name, a.species, a.breed, a.gender, a.colour, a.birthDate, c.id, c.name) from Animal a left join a.customer c where a.id in :ids")
+    List<AnimalResponse> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select a.id as id, a.name as name from Animal a where a.id > :id")
+    List<IdName> findIdNamesByIdGreaterThan(@Param("id") Long id, Pageable pageable);
+
+    @Query(value = "SELECT id FROM animals WHERE lower(f_unaccent(name)) LIKE lower(f_unaccent(:pattern)) ORDER BY similarity(lower(f_unaccent(name)), lower(f_unaccent(:name))) DESC, id LIMIT :limit", nativeQuery = true)
+    List<Long> searchIdsByName(@Param("pattern") String pattern, @Param("name") String name, @Param("limit") int limit);
+
+    @Query("select concat(str(a.version), '-', str(coalesce(c.version, 0))) from Animal a left join a.customer c where a.id = :id")
+    Optional<String> findVersionsById(@Param("id") Long id);
+
 }
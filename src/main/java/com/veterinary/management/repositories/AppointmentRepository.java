@@ -1,19 +1,50 @@
 package com.veterinary.management.repositories;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import com.veterinary.management.models.Appointment;
+import com.veterinary.management.responses.AppointmentResponse;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
+public interface AppointmentRepository extends JpaRepository<Appointment, Long>, AppointmentRepositoryCustom {
 
     Optional<Appointment> findByDateAndDoctorIdAndAnimalId(LocalDateTime date, Long id, Long id1);
     Optional<Appointment> findByDateAndDoctorId(LocalDateTime date, Long id);
     List<Appointment> findByDateBetween(LocalDateTime startDate, LocalDateTime endDate);
     List<Appointment> findByDoctorIdAndDateBetween(Long doctorId, LocalDateTime startDate, LocalDateTime endDate);
     List<Appointment> findByAnimalIdAndDateBetween(Long animalId, LocalDateTime startDate, LocalDateTime endDate);
-    
+    boolean existsByDoctorIdAndDate(Long doctorId, LocalDateTime date);
+    boolean existsByDoctorIdAndDateAndIdNot(Long doctorId, LocalDateTime date, Long id);
+
+    @Query("select a.doctor.id as doctorId, a.date as date from Appointment a where a.doctor.id in :doctorIds and a.date between :startDate and :endDate")
+    List<AppointmentSlot> findSlotsByDoctorIdInAndDateBetween(@Param("doctorIds") Collection<Long> doctorIds, @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+
+    @Query("select a.doctor.id as doctorId, a.date as date from Appointment a where a.date >= :startDate and a.date < :endDate")
+    List<AppointmentSlot> findSlotsByDateRange(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+
+    @Query("select a.doctor.id as doctorId, a.date as date from Appointment a where a.date >= :startDate and a.date < :endDate and a.doctor.city = :city")
+    List<AppointmentSlot> findSlotsByDateRangeAndCity(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate, @Param("city") String city);
+
+    @Query("select new com.veterinary.management.responses.AppointmentResponse(a.id, a.date, d.id, d.name, an.id, an.name) from Appointment a left join a.doctor d left join a.animal an where a.id > :id")
+    List<AppointmentResponse> findResponsesByIdGreaterThan(@Param("id") Long id, Pageable pageable);
+
+    @Query("select new com.veterinary.management.responses.AppointmentResponse(a.id, a.date, d.id, d.name, an.id, an.name) from Appointment a left join a.doctor d left join a.animal an where a.id < :id")
+    List<AppointmentResponse> findResponsesByIdLessThan(@Param("id") Long id, Pageable pageable);
+
+    @Query("select new com.veterinary.management.responses.AppointmentResponse(a.id, a.date, d.id, d.name, an.id, an.name) from Appointment a left join a.doctor d left join a.animal an where d.id = :doctorId and a.date between :startDate and :endDate")
+    List<AppointmentResponse> findResponsesByDoctorIdAndDateBetween(@Param("doctorId") Long doctorId, @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+
+    @Query("select new com.veterinary.management.responses.AppointmentResponse(a.id, a.date, d.id, d.name, an.id, an.name) from Appointment a left join a.doctor d left join a.animal an where an.id = :animalId and a.date between :startDate and :endDate")
+    List<AppointmentResponse> findResponsesByAnimalIdAndDateBetween(@Param("animalId") Long animalId, @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+
+    @Query("select concat(str(a.version), '-', str(coalesce(d.version, 0)), '-', str(coalesce(an.version, 0)), '-', str(coalesce(c.version, 0))) from Appointment a left join a.doctor d left join a.animal an left join an.customer c where a.id = :id")
+    Optional<String> findVersionsById(@Param("id") Long id);
+
 }
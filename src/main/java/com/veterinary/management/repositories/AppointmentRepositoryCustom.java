@@ -0,0 +1,15 @@
+package com.veterinary.management.repositories;
+
+import java.util.List;
+
+import com.veterinary.management.models.Appointment;
+
+public interface AppointmentRepositoryCustom {
+
+    /*
+     * This method inserts the appointments with JDBC batches and returns their generated ids in the same order.
+     * The doctor and animal of every appointment must already exist, only their ids are written.
+     */
+    List<Long> insertAll(List<Appointment> appointments);
+
+}
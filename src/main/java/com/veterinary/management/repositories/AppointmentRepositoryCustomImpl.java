@@ -0,0 +1,46 @@
+package com.veterinary.management.repositories;
+
+import lombok.RequiredArgsConstructor;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.veterinary.management.models.Appointment;
+
+@RequiredArgsConstructor
+public class AppointmentRepositoryCustomImpl implements AppointmentRepositoryCustom {
+
+    private static final String INSERT_SQL = "INSERT INTO appointments (version, date, doctor_id, animal_id) VALUES (0, ?, ?, ?)";
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Long> insertAll(List<Appointment> appointments) {
+        return jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            List<Long> ids = new ArrayList<>(appointments.size());
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL, new String[] { "id" })) {
+                for (int from = 0; from < appointments.size(); from += BATCH_SIZE) {
+                    for (Appointment appointment : appointments.subList(from, Math.min(from + BATCH_SIZE, appointments.size()))) {
+                        statement.setObject(1, appointment.getDate());
+                        statement.setLong(2, appointment.getDoctor().getId());
+                        statement.setLong(3, appointment.getAnimal().getId());
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                    try (ResultSet keys = statement.getGeneratedKeys()) {
+                        while (keys.next()) {
+                            ids.add(keys.getLong(1));
+                        }
+                    }
+                }
+            }
+            return ids;
+        });
+    }
+}
@@ -0,0 +1,13 @@
+package com.veterinary.management.repositories;
+
+import java.time.LocalDateTime;
+
+/*
+ * This projection holds only the doctor and the date of an appointment.
+ */
+public interface AppointmentSlot {
+
+    Long getDoctorId();
+    LocalDateTime getDate();
+
+}
@@ -1,10 +1,39 @@
 package com.veterinary.management.repositories;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import com.veterinary.management.models.AvailableDate;
+import com.veterinary.management.responses.AvailableDateResponse;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface AvailableDateRepository extends JpaRepository<AvailableDate, Long> {
+public interface AvailableDateRepository extends JpaRepository<AvailableDate, Long>, AvailableDateRepositoryCustom {
+
+    boolean existsByDoctorIdAndDate(Long doctorId, LocalDate date);
+
+    @Query("select a.doctor.id as doctorId, a.doctor.name as doctorName, a.doctor.city as city, a.date as date from AvailableDate a where a.date between :startDate and :endDate and a.doctor.deleted = false")
+    List<DoctorDay> findDoctorDaysByDateBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Query("select a.doctor.id as doctorId, a.doctor.name as doctorName, a.doctor.city as city, a.date as date from AvailableDate a where a.date between :startDate and :endDate and a.doctor.city = :city and a.doctor.deleted = false")
+    List<DoctorDay> findDoctorDaysByDateBetweenAndCity(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate, @Param("city") String city);
+
+    @Query("select a.doctor.id as doctorId, a.date as date from AvailableDate a where a.doctor.id in :doctorIds and a.date between :startDate and :endDate")
+    List<AvailableDateSlot> findSlotsByDoctorIdInAndDateBetween(@Param("doctorIds") Collection<Long> doctorIds, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Query("select new com.veterinary.management.responses.AvailableDateResponse(a.id, a.date, d.id, d.name) from AvailableDate a left join a.doctor d where a.id > :id")
+    List<AvailableDateResponse> findResponsesByIdGreaterThan(@Param("id") Long id, Pageable pageable);
+
+    @Query("select new com.veterinary.management.responses.AvailableDateResponse(a.id, a.date, d.id, d.name) from AvailableDate a left join a.doctor d where a.id < :id")
+    List<AvailableDateResponse> findResponsesByIdLessThan(@Param("id") Long id, Pageable pageable);
+
+    @Query("select concat(str(a.version), '-', str(coalesce(d.version, 0))) from AvailableDate a left join a.doctor d where a.id = :id")
+    Optional<String> findVersionsById(@Param("id") Long id);
 
 }
@@ -0,0 +1,16 @@
+package com.veterinary.management.repositories;
+
+import java.util.List;
+
+import com.veterinary.management.models.AvailableDate;
+
+public interface AvailableDateRepositoryCustom {
+
+    /*
+     * This method inserts the available dates with JDBC batches, dates the doctor already has are skipped.
+     * The doctor of every available date must already exist, only its id is written.
+     * @return int the number of inserted dates
+     */
+    int insertAll(List<AvailableDate> availableDates);
+
+}
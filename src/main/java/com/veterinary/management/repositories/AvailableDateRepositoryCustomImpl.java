@@ -0,0 +1,36 @@
+package com.veterinary.management.repositories;
+
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.veterinary.management.models.AvailableDate;
+
+@RequiredArgsConstructor
+public class AvailableDateRepositoryCustomImpl implements AvailableDateRepositoryCustom {
+
+    private static final String INSERT_SQL = "INSERT INTO dates (version, date, doctor_id) VALUES (0, ?, ?) ON CONFLICT (doctor_id, date) DO NOTHING";
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int insertAll(List<AvailableDate> availableDates) {
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_SQL, availableDates, BATCH_SIZE, (statement, availableDate) -> {
+            statement.setObject(1, availableDate.getDate());
+            statement.setLong(2, availableDate.getDoctor().getId());
+        });
+        int inserted = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                // a driver that reports no row count (SUCCESS_NO_INFO) is counted as an insert
+                if (count != 0) {
+                    inserted++;
+                }
+            }
+        }
+        return inserted;
+    }
+}
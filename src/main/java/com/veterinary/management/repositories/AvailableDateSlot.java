@@ -0,0 +1,13 @@
+package com.veterinary.management.repositories;
+
+import java.time.LocalDate;
+
+/*
+ * This projection holds only the doctor and the date of an available date.
+ */
+public interface AvailableDateSlot {
+
+    Long getDoctorId();
+    LocalDate getDate();
+
+}
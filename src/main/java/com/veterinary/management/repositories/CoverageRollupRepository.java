@@ -0,0 +1,256 @@
+package com.veterinary.management.repositories;
+
+import lombok.RequiredArgsConstructor;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import com.veterinary.management.models.Animal;
+import com.veterinary.management.responses.CoverageResponse;
+
+/*
+ * This class reads and writes the vaccination coverage rollups.
+ * - vaccination_rollups holds the number of vaccinations by species, breed, vaccine name and month
+ * - animal_rollups holds the number of animals by species and breed
+ *
+ * The rollups are changed by deltas in the transaction of the write they follow. Every statement is an upsert that
+ * locks its rollup rows in key order, and vaccination_rollups is always written before animal_rollups,
+ * so concurrent writers of the same rows wait for each other instead of deadlocking.
+ *
+ * The vaccination rollups are keyed by the species and breed of the animal at the time of the write. A vaccination write
+ * locks its animals FOR SHARE and a species or breed change locks its animal FOR UPDATE before touching the rollups,
+ * so one of them always sees the other committed and a vaccination can never stay counted under the old species and breed.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CoverageRollupRepository {
+
+    private static final String UPSERT_VACCINATIONS = " ON CONFLICT (species, breed, vaccine_name, month) "
+            + "DO UPDATE SET vaccinations = vaccination_rollups.vaccinations + EXCLUDED.vaccinations";
+    private static final String UPSERT_ANIMALS = " ON CONFLICT (species, breed) "
+            + "DO UPDATE SET animals = animal_rollups.animals + EXCLUDED.animals";
+
+    private static final String ADD_VACCINATIONS_SQL = "INSERT INTO vaccination_rollups (species, breed, vaccine_name, month, vaccinations) "
+            + "SELECT a.species, a.breed, d.vaccine_name, d.month, SUM(d.delta) "
+            + "FROM unnest(?, ?, ?, ?) AS d(animal_id, vaccine_name, month, delta) JOIN animals a ON a.id = d.animal_id "
+            + "GROUP BY a.species, a.breed, d.vaccine_name, d.month "
+            + "ORDER BY a.species, a.breed, d.vaccine_name, d.month"
+            + UPSERT_VACCINATIONS;
+
+    private static final String LOCK_ANIMALS_SQL = "SELECT id FROM animals WHERE id = ANY(?) ORDER BY id FOR SHARE";
+
+    private static final String LOCK_ANIMAL_SQL = "SELECT id FROM animals WHERE id = ? FOR UPDATE";
+
+    private static final String ADD_ANIMAL_SQL = "INSERT INTO animal_rollups (species, breed, animals) VALUES (?, ?, ?)"
+            + UPSERT_ANIMALS;
+
+    private static final String MOVE_ANIMAL_SQL = "INSERT INTO animal_rollups (species, breed, animals) "
+            + "SELECT m.species, m.breed, SUM(m.delta) FROM (VALUES (?, ?, -1), (?, ?, 1)) AS m(species, breed, delta) "
+            + "GROUP BY m.species, m.breed ORDER BY 1, 2"
+            + UPSERT_ANIMALS;
+
+    private static final String MOVE_ANIMAL_VACCINATIONS_SQL = "INSERT INTO vaccination_rollups (species, breed, vaccine_name, month, vaccinations) "
+            + "SELECT m.species, m.breed, v.name, date_trunc('month', v.application_date)::date, SUM(m.sign) "
+            + "FROM vaccines v CROSS JOIN (VALUES (?, ?, -1), (?, ?, 1)) AS m(species, breed, sign) "
+            + "WHERE v.animal_id = ? "
+            + "GROUP BY m.species, m.breed, v.name, date_trunc('month', v.application_date) "
+            + "ORDER BY 1, 2, 3, 4"
+            + UPSERT_VACCINATIONS;
+
+    private static final String REMOVE_ANIMAL_VACCINATIONS_SQL = "INSERT INTO vaccination_rollups (species, breed, vaccine_name, month, vaccinations) "
+            + "SELECT a.species, a.breed, v.name, date_trunc('month', v.application_date)::date, -COUNT(*) "
+            + "FROM vaccines v JOIN animals a ON a.id = v.animal_id WHERE a.id = ? "
+            + "GROUP BY a.species, a.breed, v.name, date_trunc('month', v.application_date) "
+            + "ORDER BY 1, 2, 3, 4"
+            + UPSERT_VACCINATIONS;
+
+    private static final String[] REBUILD_SQL = {
+            "LOCK TABLE vaccination_rollups, animal_rollups IN EXCLUSIVE MODE",
+            "DELETE FROM vaccination_rollups",
+            "DELETE FROM animal_rollups",
+            "INSERT INTO vaccination_rollups (species, breed, vaccine_name, month, vaccinations) "
+                    + "SELECT a.species, a.breed, v.name, date_trunc('month', v.application_date)::date, COUNT(*) "
+                    + "FROM vaccines v JOIN animals a ON a.id = v.animal_id "
+                    + "GROUP BY a.species, a.breed, v.name, date_trunc('month', v.application_date)",
+            "INSERT INTO animal_rollups (species, breed, animals) "
+                    + "SELECT a.species, a.breed, COUNT(*) FROM animals a GROUP BY a.species, a.breed"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /*
+     * This method adds the deltas to the vaccination rollups with one statement.
+     * The animals are locked FOR SHARE first, so the species and breed the deltas are added under cannot change until the transaction ends.
+     * @param List<VaccinationDelta> deltas
+     */
+    public void addVaccinations(List<VaccinationDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        Long[] animalIds = new Long[deltas.size()];
+        String[] names = new String[deltas.size()];
+        Date[] months = new Date[deltas.size()];
+        Long[] values = new Long[deltas.size()];
+        for (int i = 0; i < deltas.size(); i++) {
+            VaccinationDelta delta = deltas.get(i);
+            animalIds[i] = delta.animalId();
+            names[i] = delta.vaccineName();
+            months[i] = Date.valueOf(month(delta.applicationDate()));
+            values[i] = delta.delta();
+        }
+        Long[] lockedIds = Arrays.stream(animalIds).distinct().toArray(Long[]::new);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(LOCK_ANIMALS_SQL);
+            statement.setArray(1, array(connection, "bigint", lockedIds));
+            return statement;
+        }, (RowCallbackHandler) resultSet -> {
+        });
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(ADD_VACCINATIONS_SQL);
+            statement.setArray(1, array(connection, "bigint", animalIds));
+            statement.setArray(2, array(connection, "varchar", names));
+            statement.setArray(3, array(connection, "date", months));
+            statement.setArray(4, array(connection, "bigint", values));
+            return statement;
+        });
+    }
+
+    /*
+     * This method adds delta animals to the animal rollup of the species and breed
+     * @param String species
+     * @param String breed
+     * @param long delta
+     */
+    public void addAnimal(String species, String breed, long delta) {
+        jdbcTemplate.update(ADD_ANIMAL_SQL, species, breed, delta);
+    }
+
+    /*
+     * This method adds delta for each of the animals to the animal rollups, one statement per species and breed in key order
+     * @param List<Animal> animals
+     * @param long delta 1 for added animals, -1 for deleted ones
+     */
+    public void addAnimals(List<Animal> animals, long delta) {
+        if (animals.isEmpty()) {
+            return;
+        }
+        Map<List<String>, Long> counts = new TreeMap<>(Comparator.<List<String>, String>comparing(key -> key.get(0)).thenComparing(key -> key.get(1)));
+        for (Animal animal : animals) {
+            counts.merge(List.of(animal.getSpecies(), animal.getBreed()), delta, Long::sum);
+        }
+        jdbcTemplate.batchUpdate(ADD_ANIMAL_SQL, new ArrayList<>(counts.entrySet()), counts.size(), (statement, count) -> {
+            statement.setString(1, count.getKey().get(0));
+            statement.setString(2, count.getKey().get(1));
+            statement.setLong(3, count.getValue());
+        });
+    }
+
+    /*
+     * This method moves an animal and its vaccinations from one species and breed to another.
+     * The animal is locked FOR UPDATE first, this waits for the vaccination writes of the animal that are still running,
+     * and the vaccines read afterwards include them. It must run in the transaction that changes the animal.
+     * @param Long animalId
+     * @param String oldSpecies
+     * @param String oldBreed
+     * @param String newSpecies
+     * @param String newBreed
+     */
+    public void moveAnimal(Long animalId, String oldSpecies, String oldBreed, String newSpecies, String newBreed) {
+        jdbcTemplate.queryForList(LOCK_ANIMAL_SQL, Long.class, animalId);
+        jdbcTemplate.update(MOVE_ANIMAL_VACCINATIONS_SQL, oldSpecies, oldBreed, newSpecies, newBreed, animalId);
+        jdbcTemplate.update(MOVE_ANIMAL_SQL, oldSpecies, oldBreed, newSpecies, newBreed);
+    }
+
+    /*
+     * This method subtracts an animal and its vaccinations. It must run before the animal is deleted.
+     * @param Long animalId
+     * @param String species
+     * @param String breed
+     */
+    public void removeAnimal(Long animalId, String species, String breed) {
+        jdbcTemplate.update(REMOVE_ANIMAL_VACCINATIONS_SQL, animalId);
+        addAnimal(species, breed, -1);
+    }
+
+    /*
+     * This method recomputes the rollups from the vaccines and animals tables.
+     * The tables are locked for writes until the transaction ends, reads of the rollups go on.
+     * It must run in a transaction.
+     */
+    public void rebuild() {
+        for (String sql : REBUILD_SQL) {
+            jdbcTemplate.update(sql);
+        }
+    }
+
+    /*
+     * This method returns the coverage rows matching the filters, null filters match everything
+     * @param String species
+     * @param String breed
+     * @param String vaccineName
+     * @param LocalDate from the first month, inclusive
+     * @param LocalDate to the last month, inclusive
+     * @return List<CoverageResponse> sorted by month, species, breed and vaccine name
+     */
+    public List<CoverageResponse> findCoverage(String species, String breed, String vaccineName, LocalDate from, LocalDate to) {
+        StringBuilder sql = new StringBuilder("SELECT v.species, v.breed, v.vaccine_name, v.month, v.vaccinations, COALESCE(a.animals, 0) AS animals "
+                + "FROM vaccination_rollups v LEFT JOIN animal_rollups a ON a.species = v.species AND a.breed = v.breed "
+                + "WHERE v.vaccinations > 0");
+        List<Object> args = new ArrayList<>();
+        if (species != null) {
+            sql.append(" AND v.species = ?");
+            args.add(species);
+        }
+        if (breed != null) {
+            sql.append(" AND v.breed = ?");
+            args.add(breed);
+        }
+        if (vaccineName != null) {
+            sql.append(" AND v.vaccine_name = ?");
+            args.add(vaccineName);
+        }
+        if (from != null) {
+            sql.append(" AND v.month >= ?");
+            args.add(month(from));
+        }
+        if (to != null) {
+            sql.append(" AND v.month <= ?");
+            args.add(month(to));
+        }
+        sql.append(" ORDER BY v.month, v.species, v.breed, v.vaccine_name");
+        return jdbcTemplate.query(sql.toString(), (resultSet, rowNumber) -> {
+            long vaccinations = resultSet.getLong("vaccinations");
+            long animals = resultSet.getLong("animals");
+            return new CoverageResponse(
+                    resultSet.getString("species"),
+                    resultSet.getString("breed"),
+                    resultSet.getString("vaccine_name"),
+                    resultSet.getObject("month", LocalDate.class),
+                    vaccinations,
+                    animals,
+                    animals == 0 ? null : (double) vaccinations / animals);
+        }, args.toArray());
+    }
+
+    private static LocalDate month(LocalDate date) {
+        return date.withDayOfMonth(1);
+    }
+
+    private static Array array(Connection connection, String type, Object[] values) throws SQLException {
+        return connection.createArrayOf(type, values);
+    }
+}
@@ -1,16 +1,30 @@
 package com.veterinary.management.repositories;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import com.veterinary.management.models.Customer;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface CustomerRepository extends JpaRepository<Customer, Long> {
+public interface CustomerRepository extends JpaRepository<Customer, Long>, CustomerRepositoryCustom {
 
     Customer findByEmail(String email);
     Optional<Customer> findByNameAndEmail(String name, String email);
     List<Customer> findByNameContaining(String name);
-    
+    List<Customer> findByIdGreaterThan(Long id, Pageable pageable);
+    List<Customer> findByIdLessThan(Long id, Pageable pageable);
+
+    @Query("select c.id as id, c.name as name from Customer c where c.id > :id")
+    List<IdName> findIdNamesByIdGreaterThan(@Param("id") Long id, Pageable pageable);
+
+    @Query(value = "SELECT id FROM customers WHERE deleted = false AND lower(f_unaccent(name)) LIKE lower(f_unaccent(:pattern)) ORDER BY similarity(lower(f_unaccent(name)), lower(f_unaccent(:name))) DESC, id LIMIT :limit", nativeQuery = true)
+    List<Long> searchIdsByName(@Param("pattern") String pattern, @Param("name") String name, @Param("limit") int limit);
+
+    @Query("select c.version from Customer c where c.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
 }
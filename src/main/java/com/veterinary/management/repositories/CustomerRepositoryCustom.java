@@ -0,0 +1,16 @@
+package com.veterinary.management.repositories;
+
+import java.util.List;
+
+import com.veterinary.management.models.Customer;
+
+public interface CustomerRepositoryCustom {
+
+    /*
+     * This method persists the customers and their animals, flushes them in JDBC batches and clears the persistence context,
+     * so the memory used by a transaction does not grow with the number of chunks it writes.
+     * It must run in a transaction.
+     */
+    void persistAll(List<Customer> customers);
+
+}
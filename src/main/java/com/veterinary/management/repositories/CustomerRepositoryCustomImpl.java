@@ -0,0 +1,30 @@
+package com.veterinary.management.repositories;
+
+import java.util.List;
+
+import com.veterinary.management.models.Animal;
+import com.veterinary.management.models.Customer;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+public class CustomerRepositoryCustomImpl implements CustomerRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void persistAll(List<Customer> customers) {
+        for (Customer customer : customers) {
+            entityManager.persist(customer);
+            if (customer.getAnimals() != null) {
+                for (Animal animal : customer.getAnimals()) {
+                    animal.setCustomer(customer);
+                    entityManager.persist(animal);
+                }
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
@@ -0,0 +1,15 @@
+package com.veterinary.management.repositories;
+
+import java.time.LocalDate;
+
+/*
+ * This projection holds a doctor and one of the dates the doctor is available on.
+ */
+public interface DoctorDay {
+
+    Long getDoctorId();
+    String getDoctorName();
+    String getCity();
+    LocalDate getDate();
+
+}
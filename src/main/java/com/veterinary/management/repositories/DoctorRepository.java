@@ -1,13 +1,27 @@
 package com.veterinary.management.repositories;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import com.veterinary.management.models.Doctor;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface DoctorRepository extends JpaRepository<Doctor, Long> {
 
     Optional<Doctor> findByNameAndEmail(String name, String email);
-    
+
+    @Query("select d.id from Doctor d where d.id in :ids")
+    List<Long> findIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    List<Doctor> findByIdGreaterThan(Long id, Pageable pageable);
+    List<Doctor> findByIdLessThan(Long id, Pageable pageable);
+
+    @Query("select d.version from Doctor d where d.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
 }
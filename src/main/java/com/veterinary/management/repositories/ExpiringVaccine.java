@@ -0,0 +1,15 @@
+package com.veterinary.management.repositories;
+
+import java.time.LocalDate;
+
+/*
+ * This projection holds the columns of a vaccine the reminder job needs.
+ */
+public interface ExpiringVaccine {
+
+    Long getId();
+    Long getAnimalId();
+    String getName();
+    LocalDate getExpirationDate();
+
+}
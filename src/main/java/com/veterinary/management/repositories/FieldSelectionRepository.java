@@ -0,0 +1,145 @@
+package com.veterinary.management.repositories;
+
+import lombok.RequiredArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.stereotype.Repository;
+
+import com.veterinary.management.models.Animal;
+import com.veterinary.management.models.Appointment;
+import com.veterinary.management.models.AvailableDate;
+import com.veterinary.management.models.Customer;
+import com.veterinary.management.models.Doctor;
+import com.veterinary.management.models.Vaccine;
+import com.veterinary.management.requests.PageParams;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+/*
+ * This class reads only the requested fields of an entity, the select list of the query holds exactly those columns.
+ * 
+ * Every entity has a whitelist of fields, the names of the list DTOs. Fields of a parent such as customerId
+ * are read through a left join, so the parent entity is never loaded.
+ */
+@Repository
+@RequiredArgsConstructor
+public class FieldSelectionRepository {
+
+    private static final Map<Class<?>, Map<String, String>> FIELDS = Map.of(
+            Customer.class, fields("id", "version", "name", "email", "phone", "address", "city"),
+            Doctor.class, fields("id", "version", "name", "email", "phone", "address", "city"),
+            Animal.class, fields("id", "version", "name", "species", "breed", "gender", "colour", "birthDate",
+                    "customerId=customer.id", "customerName=customer.name"),
+            Vaccine.class, fields("id", "version", "name", "applicationDate", "expirationDate",
+                    "animalId=animal.id", "animalName=animal.name"),
+            Appointment.class, fields("id", "version", "date", "doctorId=doctor.id", "doctorName=doctor.name",
+                    "animalId=animal.id", "animalName=animal.name"),
+            AvailableDate.class, fields("id", "version", "date", "doctorId=doctor.id", "doctorName=doctor.name"));
+
+    private final EntityManager entityManager;
+
+    /*
+     * This method returns the fields that can be selected from an entity, in their default order
+     * @param Class<?> entity
+     * @return Set<String>
+     */
+    public Set<String> getSelectableFields(Class<?> entity) {
+        return FIELDS.get(entity).keySet();
+    }
+
+    /*
+     * This method returns one page of the entities with the given fields, sorted by id
+     * @param Class<?> entity
+     * @param List<String> fields selectable fields, id must be one of them
+     * @param PageParams pageParams
+     * @return List<Map<String, Object>> one map per row, keyed by field in the given order
+     */
+    public List<Map<String, Object>> findPage(Class<?> entity, List<String> fields, PageParams pageParams) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<?> root = query.from(entity);
+        query.multiselect(selections(root, entity, fields));
+
+        Path<Long> id = root.get("id");
+        if (pageParams.descending()) {
+            query.where(criteriaBuilder.lessThan(id, pageParams.start())).orderBy(criteriaBuilder.desc(id));
+        } else {
+            query.where(criteriaBuilder.greaterThan(id, pageParams.start())).orderBy(criteriaBuilder.asc(id));
+        }
+        return toMaps(entityManager.createQuery(query).setMaxResults(pageParams.limit()).getResultList(), fields);
+    }
+
+    /*
+     * This method returns the given fields of an entity
+     * @param Class<?> entity
+     * @param Long id
+     * @param List<String> fields selectable fields
+     * @return Map<String, Object> keyed by field in the given order, null if there is no entity with the given id
+     */
+    public Map<String, Object> findById(Class<?> entity, Long id, List<String> fields) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<?> root = query.from(entity);
+        query.multiselect(selections(root, entity, fields)).where(criteriaBuilder.equal(root.get("id"), id));
+
+        List<Map<String, Object>> rows = toMaps(entityManager.createQuery(query).getResultList(), fields);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private static List<Selection<?>> selections(Root<?> root, Class<?> entity, List<String> fields) {
+        Map<String, String> paths = FIELDS.get(entity);
+        Map<String, Join<?, ?>> joins = new HashMap<>();
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            String[] path = paths.get(field).split("\\.");
+            Path<?> selection = path.length == 1
+                    ? root.get(path[0])
+                    : joins.computeIfAbsent(path[0], attribute -> root.join(attribute, JoinType.LEFT)).get(path[1]);
+            selections.add(selection.alias(field));
+        }
+        return selections;
+    }
+
+    private static List<Map<String, Object>> toMaps(List<Tuple> tuples, List<String> fields) {
+        List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String field : fields) {
+                row.put(field, tuple.get(field));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /*
+     * Every entry is a field named like its attribute, or name=path for an attribute of a parent
+     */
+    private static Map<String, String> fields(String... entries) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        for (String entry : entries) {
+            int separator = entry.indexOf('=');
+            if (separator < 0) {
+                fields.put(entry, entry);
+            } else {
+                fields.put(entry.substring(0, separator), entry.substring(separator + 1));
+            }
+        }
+        return Collections.unmodifiableMap(fields);
+    }
+}
@@ -0,0 +1,11 @@
+package com.veterinary.management.repositories;
+
+/*
+ * This projection holds only the id and the name of an animal or a customer.
+ */
+public interface IdName {
+
+    Long getId();
+    String getName();
+
+}
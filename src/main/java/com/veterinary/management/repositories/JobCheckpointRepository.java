@@ -0,0 +1,21 @@
+package com.veterinary.management.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import com.veterinary.management.models.JobCheckpoint;
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Repository
+public interface JobCheckpointRepository extends JpaRepository<JobCheckpoint, Long> {
+
+    Optional<JobCheckpoint> findByJobAndRunDateAndPartitionKey(String job, LocalDate runDate, String partitionKey);
+
+    @Modifying
+    @Query("delete from JobCheckpoint c where c.job = :job and c.runDate < :runDate")
+    int deleteByJobAndRunDateBefore(@Param("job") String job, @Param("runDate") LocalDate runDate);
+
+}
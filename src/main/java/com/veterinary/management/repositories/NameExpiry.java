@@ -0,0 +1,13 @@
+package com.veterinary.management.repositories;
+
+import java.time.LocalDate;
+
+/*
+ * This projection holds the latest expiration date of the vaccines with one name.
+ */
+public interface NameExpiry {
+
+    String getName();
+    LocalDate getExpirationDate();
+
+}
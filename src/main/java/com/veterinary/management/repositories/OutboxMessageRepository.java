@@ -0,0 +1,11 @@
+package com.veterinary.management.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.veterinary.management.models.OutboxMessage;
+
+@Repository
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long>, OutboxMessageRepositoryCustom {
+
+}
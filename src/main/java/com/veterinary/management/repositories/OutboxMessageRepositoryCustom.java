@@ -0,0 +1,43 @@
+package com.veterinary.management.repositories;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.veterinary.management.models.OutboxMessage;
+
+public interface OutboxMessageRepositoryCustom {
+
+    /*
+     * This method inserts the messages with JDBC batches, the recipient of every message is the email of the owner of its animal.
+     */
+    void enqueueAll(List<OutboxMessage> messages);
+
+    /*
+     * This method claims up to limit pending messages that are due, skipping the ones another dispatcher is claiming.
+     * The claimed messages are hidden until leaseUntil and their attempts are increased,
+     * a dispatcher that stops before recording the outcome leaves them to be claimed again after the lease.
+     */
+    List<OutboxMessage> claimDue(LocalDateTime now, LocalDateTime leaseUntil, int limit);
+
+    /*
+     * This method records the outcome of claimed messages: their status, next available time and last error.
+     * Messages that are no longer pending, cancelled while they were being sent, are left as they are.
+     */
+    void updateOutcomes(List<OutboxMessage> messages);
+
+    /*
+     * This method cancels the pending messages of the type written for an aggregate.
+     */
+    int cancelPending(String aggregateType, Long aggregateId, String type);
+
+    /*
+     * This method cancels the pending messages of the type written for any of the aggregates, with JDBC batches.
+     */
+    void cancelPendingAll(String aggregateType, List<Long> aggregateIds, String type);
+
+    /*
+     * This method deletes up to limit sent or cancelled messages created before the given time.
+     */
+    int deleteFinishedBefore(LocalDateTime createdBefore, int limit);
+
+}
@@ -0,0 +1,100 @@
+package com.veterinary.management.repositories;
+
+import lombok.RequiredArgsConstructor;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.veterinary.management.models.OutboxMessage;
+
+@RequiredArgsConstructor
+public class OutboxMessageRepositoryCustomImpl implements OutboxMessageRepositoryCustom {
+
+    private static final String ENQUEUE_SQL = "INSERT INTO outbox_messages (type, aggregate_type, aggregate_id, animal_id, recipient, payload, status, attempts, available_at, created_at) "
+            + "SELECT ?, ?, ?, a.id, c.email, ?, '" + OutboxMessage.PENDING + "', 0, ?, ? "
+            + "FROM animals a LEFT JOIN customers c ON c.id = a.customer_id AND c.deleted = false WHERE a.id = ?";
+
+    private static final String CLAIM_SQL = "UPDATE outbox_messages SET available_at = ?, attempts = attempts + 1 "
+            + "WHERE id IN (SELECT id FROM outbox_messages WHERE status = '" + OutboxMessage.PENDING + "' AND available_at <= ? "
+            + "ORDER BY available_at, id LIMIT ? FOR UPDATE SKIP LOCKED) "
+            + "RETURNING id, type, aggregate_type, aggregate_id, animal_id, recipient, payload, status, attempts, available_at, created_at";
+
+    //A message cancelled while it was being sent stays cancelled
+    private static final String UPDATE_OUTCOME_SQL = "UPDATE outbox_messages SET status = ?, available_at = ?, sent_at = ?, last_error = ? "
+            + "WHERE id = ? AND status = '" + OutboxMessage.PENDING + "'";
+
+    private static final String CANCEL_SQL = "UPDATE outbox_messages SET status = '" + OutboxMessage.CANCELLED + "' "
+            + "WHERE aggregate_type = ? AND aggregate_id = ? AND type = ? AND status = '" + OutboxMessage.PENDING + "'";
+
+    private static final String DELETE_FINISHED_SQL = "DELETE FROM outbox_messages WHERE id IN (SELECT id FROM outbox_messages "
+            + "WHERE status IN ('" + OutboxMessage.SENT + "', '" + OutboxMessage.CANCELLED + "') AND created_at < ? LIMIT ?)";
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void enqueueAll(List<OutboxMessage> messages) {
+        jdbcTemplate.batchUpdate(ENQUEUE_SQL, messages, BATCH_SIZE, (statement, message) -> {
+            statement.setString(1, message.getType());
+            statement.setString(2, message.getAggregateType());
+            statement.setLong(3, message.getAggregateId());
+            statement.setString(4, message.getPayload());
+            statement.setObject(5, message.getAvailableAt());
+            statement.setObject(6, message.getCreatedAt());
+            statement.setLong(7, message.getAnimalId());
+        });
+    }
+
+    @Override
+    public List<OutboxMessage> claimDue(LocalDateTime now, LocalDateTime leaseUntil, int limit) {
+        return jdbcTemplate.query(CLAIM_SQL, (resultSet, rowNumber) -> {
+            OutboxMessage message = new OutboxMessage();
+            message.setId(resultSet.getLong("id"));
+            message.setType(resultSet.getString("type"));
+            message.setAggregateType(resultSet.getString("aggregate_type"));
+            message.setAggregateId(resultSet.getLong("aggregate_id"));
+            message.setAnimalId(resultSet.getLong("animal_id"));
+            message.setRecipient(resultSet.getString("recipient"));
+            message.setPayload(resultSet.getString("payload"));
+            message.setStatus(resultSet.getString("status"));
+            message.setAttempts(resultSet.getInt("attempts"));
+            message.setAvailableAt(resultSet.getObject("available_at", LocalDateTime.class));
+            message.setCreatedAt(resultSet.getObject("created_at", LocalDateTime.class));
+            return message;
+        }, leaseUntil, now, limit);
+    }
+
+    @Override
+    public void updateOutcomes(List<OutboxMessage> messages) {
+        jdbcTemplate.batchUpdate(UPDATE_OUTCOME_SQL, messages, BATCH_SIZE, (statement, message) -> {
+            statement.setString(1, message.getStatus());
+            statement.setObject(2, message.getAvailableAt());
+            statement.setTimestamp(3, message.getSentAt() == null ? null : Timestamp.valueOf(message.getSentAt()));
+            statement.setString(4, message.getLastError());
+            statement.setLong(5, message.getId());
+        });
+    }
+
+    @Override
+    public int cancelPending(String aggregateType, Long aggregateId, String type) {
+        return jdbcTemplate.update(CANCEL_SQL, aggregateType, aggregateId, type);
+    }
+
+    @Override
+    public void cancelPendingAll(String aggregateType, List<Long> aggregateIds, String type) {
+        jdbcTemplate.batchUpdate(CANCEL_SQL, aggregateIds, BATCH_SIZE, (statement, aggregateId) -> {
+            statement.setString(1, aggregateType);
+            statement.setLong(2, aggregateId);
+            statement.setString(3, type);
+        });
+    }
+
+    @Override
+    public int deleteFinishedBefore(LocalDateTime createdBefore, int limit) {
+        return jdbcTemplate.update(DELETE_FINISHED_SQL, createdBefore, limit);
+    }
+}
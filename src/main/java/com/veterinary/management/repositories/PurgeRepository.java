@@ -0,0 +1,150 @@
+package com.veterinary.management.repositories;
+
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.veterinary.management.models.Animal;
+import com.veterinary.management.models.Appointment;
+import com.veterinary.management.models.Doctor;
+import com.veterinary.management.models.OutboxMessage;
+
+/*
+ * This class deletes the rows of deleted customers and doctors a chunk at a time.
+ * Every statement deletes at most limit rows picked by a subquery and returns what the caller needs
+ * to update the rollups, indexes and notifications, so a chunk never loads more than limit rows.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PurgeRepository {
+
+    private static final String CANCEL_CUSTOMER_NOTIFICATIONS_SQL = "UPDATE outbox_messages SET status = '" + OutboxMessage.CANCELLED + "' "
+            + "WHERE status = '" + OutboxMessage.PENDING + "' AND animal_id IN (SELECT id FROM animals WHERE customer_id = ?)";
+
+    private static final String DELETE_CUSTOMER_VACCINES_SQL = "DELETE FROM vaccines WHERE id IN (SELECT v.id FROM vaccines v "
+            + "JOIN animals a ON a.id = v.animal_id WHERE a.customer_id = ? LIMIT ?) RETURNING animal_id, name, application_date";
+
+    private static final String DELETE_CUSTOMER_VACCINE_REMINDERS_SQL = "DELETE FROM vaccine_reminders WHERE id IN (SELECT r.id FROM vaccine_reminders r "
+            + "JOIN animals a ON a.id = r.animal_id WHERE a.customer_id = ? LIMIT ?)";
+
+    private static final String DELETE_CUSTOMER_APPOINTMENTS_SQL = "DELETE FROM appointments WHERE id IN (SELECT p.id FROM appointments p "
+            + "JOIN animals a ON a.id = p.animal_id WHERE a.customer_id = ? LIMIT ?)";
+
+    //Animals that got a vaccine or an appointment meanwhile are left for the next round
+    private static final String DELETE_CUSTOMER_ANIMALS_SQL = "DELETE FROM animals WHERE id IN (SELECT a.id FROM animals a WHERE a.customer_id = ? "
+            + "AND NOT EXISTS (SELECT 1 FROM vaccines v WHERE v.animal_id = a.id) "
+            + "AND NOT EXISTS (SELECT 1 FROM appointments p WHERE p.animal_id = a.id) LIMIT ?) RETURNING id, name, species, breed";
+
+    private static final String HAS_ANIMALS_SQL = "SELECT EXISTS (SELECT 1 FROM animals WHERE customer_id = ?)";
+
+    private static final String DELETE_CUSTOMER_SQL = "DELETE FROM customers WHERE id = ? AND deleted = true";
+
+    private static final String DELETE_DOCTOR_APPOINTMENTS_SQL = "DELETE FROM appointments WHERE id IN (SELECT id FROM appointments "
+            + "WHERE doctor_id = ? LIMIT ?) RETURNING id, date, doctor_id, animal_id";
+
+    private static final String DELETE_DOCTOR_DATES_SQL = "DELETE FROM dates WHERE id IN (SELECT id FROM dates WHERE doctor_id = ? LIMIT ?)";
+
+    private static final String DELETE_DOCTOR_SQL = "DELETE FROM doctors WHERE id = ? AND deleted = true";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /*
+     * This method cancels the pending notifications to the owner of the animals of a customer
+     */
+    public int cancelCustomerNotifications(Long customerId) {
+        return jdbcTemplate.update(CANCEL_CUSTOMER_NOTIFICATIONS_SQL, customerId);
+    }
+
+    /*
+     * This method deletes up to limit vaccines of the animals of a customer
+     * @return List<VaccinationDelta> one negative delta per deleted vaccine
+     */
+    public List<VaccinationDelta> deleteCustomerVaccines(Long customerId, int limit) {
+        return jdbcTemplate.query(DELETE_CUSTOMER_VACCINES_SQL, (resultSet, rowNumber) -> new VaccinationDelta(
+                resultSet.getLong("animal_id"),
+                resultSet.getString("name"),
+                resultSet.getObject("application_date", LocalDate.class),
+                -1), customerId, limit);
+    }
+
+    /*
+     * This method deletes up to limit vaccine reminders of the animals of a customer
+     */
+    public int deleteCustomerVaccineReminders(Long customerId, int limit) {
+        return jdbcTemplate.update(DELETE_CUSTOMER_VACCINE_REMINDERS_SQL, customerId, limit);
+    }
+
+    /*
+     * This method deletes up to limit appointments of the animals of a customer
+     */
+    public int deleteCustomerAppointments(Long customerId, int limit) {
+        return jdbcTemplate.update(DELETE_CUSTOMER_APPOINTMENTS_SQL, customerId, limit);
+    }
+
+    /*
+     * This method deletes up to limit animals of a customer that have no vaccines and appointments left
+     * @return List<Animal> the id, name, species and breed of the deleted animals
+     */
+    public List<Animal> deleteCustomerAnimals(Long customerId, int limit) {
+        return jdbcTemplate.query(DELETE_CUSTOMER_ANIMALS_SQL, (resultSet, rowNumber) -> {
+            Animal animal = new Animal();
+            animal.setId(resultSet.getLong("id"));
+            animal.setName(resultSet.getString("name"));
+            animal.setSpecies(resultSet.getString("species"));
+            animal.setBreed(resultSet.getString("breed"));
+            return animal;
+        }, customerId, limit);
+    }
+
+    /*
+     * This method returns true if a customer still has animals
+     */
+    public boolean hasAnimals(Long customerId) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(HAS_ANIMALS_SQL, Boolean.class, customerId));
+    }
+
+    /*
+     * This method deletes a customer that was marked as deleted
+     */
+    public int deleteCustomer(Long customerId) {
+        return jdbcTemplate.update(DELETE_CUSTOMER_SQL, customerId);
+    }
+
+    /*
+     * This method deletes up to limit appointments of a doctor
+     * @return List<Appointment> the deleted appointments, their doctor and animal only hold the id
+     */
+    public List<Appointment> deleteDoctorAppointments(Long doctorId, int limit) {
+        return jdbcTemplate.query(DELETE_DOCTOR_APPOINTMENTS_SQL, (resultSet, rowNumber) -> {
+            Doctor doctor = new Doctor();
+            doctor.setId(resultSet.getLong("doctor_id"));
+            Animal animal = new Animal();
+            animal.setId(resultSet.getLong("animal_id"));
+            Appointment appointment = new Appointment();
+            appointment.setId(resultSet.getLong("id"));
+            appointment.setDate(resultSet.getObject("date", LocalDateTime.class));
+            appointment.setDoctor(doctor);
+            appointment.setAnimal(animal);
+            return appointment;
+        }, doctorId, limit);
+    }
+
+    /*
+     * This method deletes up to limit available dates of a doctor
+     */
+    public int deleteDoctorDates(Long doctorId, int limit) {
+        return jdbcTemplate.update(DELETE_DOCTOR_DATES_SQL, doctorId, limit);
+    }
+
+    /*
+     * This method deletes a doctor that was marked as deleted
+     */
+    public int deleteDoctor(Long doctorId) {
+        return jdbcTemplate.update(DELETE_DOCTOR_SQL, doctorId);
+    }
+}
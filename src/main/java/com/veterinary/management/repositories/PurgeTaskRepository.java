@@ -0,0 +1,27 @@
+package com.veterinary.management.repositories;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import com.veterinary.management.models.PurgeTask;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PurgeTaskRepository extends JpaRepository<PurgeTask, Long> {
+
+    @Query("select t.id from PurgeTask t where t.status = '" + PurgeTask.PENDING + "' or (t.status = '" + PurgeTask.RUNNING + "' and t.updatedAt < :staleBefore) order by t.id")
+    List<Long> findRunnableIds(@Param("staleBefore") LocalDateTime staleBefore, Pageable pageable);
+
+    @Modifying
+    @Query("update PurgeTask t set t.status = '" + PurgeTask.RUNNING + "', t.updatedAt = :now where t.id = :id and (t.status = '" + PurgeTask.PENDING + "' or (t.status = '" + PurgeTask.RUNNING + "' and t.updatedAt < :staleBefore))")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("staleBefore") LocalDateTime staleBefore);
+
+    @Modifying
+    @Query("update PurgeTask t set t.step = :step, t.deletedRows = t.deletedRows + :deletedRows, t.updatedAt = :now where t.id = :id")
+    int addProgress(@Param("id") Long id, @Param("step") String step, @Param("deletedRows") long deletedRows, @Param("now") LocalDateTime now);
+
+}
@@ -0,0 +1,10 @@
+package com.veterinary.management.repositories;
+
+import java.time.LocalDate;
+
+/*
+ * This record holds a change to the vaccination rollups: delta vaccinations of an animal with a vaccine,
+ * counted in the month of the application date. The species and breed are read from the animal.
+ */
+public record VaccinationDelta(Long animalId, String vaccineName, LocalDate applicationDate, long delta) {
+}
@@ -0,0 +1,10 @@
+package com.veterinary.management.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import com.veterinary.management.models.VaccineReminder;
+
+@Repository
+public interface VaccineReminderRepository extends JpaRepository<VaccineReminder, Long>, VaccineReminderRepositoryCustom {
+
+}
@@ -0,0 +1,15 @@
+package com.veterinary.management.repositories;
+
+import java.util.List;
+
+import com.veterinary.management.models.VaccineReminder;
+
+public interface VaccineReminderRepositoryCustom {
+
+    /*
+     * This method inserts the reminders with JDBC batches and returns how many were new.
+     * Reminders that already exist for the same vaccine and expiration date are skipped.
+     */
+    int insertAllIgnoringExisting(List<VaccineReminder> reminders);
+
+}
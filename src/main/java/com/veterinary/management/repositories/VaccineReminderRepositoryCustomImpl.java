@@ -0,0 +1,37 @@
+package com.veterinary.management.repositories;
+
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.veterinary.management.models.VaccineReminder;
+
+@RequiredArgsConstructor
+public class VaccineReminderRepositoryCustomImpl implements VaccineReminderRepositoryCustom {
+
+    private static final String INSERT_SQL = "INSERT INTO vaccine_reminders (vaccine_id, animal_id, vaccine_name, expiration_date, created_at) VALUES (?, ?, ?, ?, ?) "
+            + "ON CONFLICT (vaccine_id, expiration_date) DO NOTHING";
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int insertAllIgnoringExisting(List<VaccineReminder> reminders) {
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_SQL, reminders, BATCH_SIZE, (statement, reminder) -> {
+            statement.setLong(1, reminder.getVaccineId());
+            statement.setLong(2, reminder.getAnimalId());
+            statement.setString(3, reminder.getVaccineName());
+            statement.setObject(4, reminder.getExpirationDate());
+            statement.setObject(5, reminder.getCreatedAt());
+        });
+        int inserted = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                inserted += Math.max(count, 0);
+            }
+        }
+        return inserted;
+    }
+}
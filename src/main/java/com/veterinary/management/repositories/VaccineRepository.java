@@ -1,16 +1,55 @@
 package com.veterinary.management.repositories;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import com.veterinary.management.models.Vaccine;
+import com.veterinary.management.responses.VaccineResponse;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface VaccineRepository extends JpaRepository<Vaccine, Long> {
+public interface VaccineRepository extends JpaRepository<Vaccine, Long>, VaccineRepositoryCustom {
 
     List<Vaccine> findByAnimalId(Long id);
+
+    @EntityGraph(attributePaths = {"animal", "animal.customer"})
+    List<Vaccine> findWithAnimalByAnimalId(Long animalId);
+
     List<Vaccine> findVaccinesByApplicationDateBetween(LocalDate startDate, LocalDate endDate);
-    
+
+    @Query("select new com.veterinary.management.responses.VaccineResponse(v.id, v.name, v.applicationDate, v.expirationDate, an.id, an.name) from Vaccine v left join v.animal an where v.id > :id")
+    List<VaccineResponse> findResponsesByIdGreaterThan(@Param("id") Long id, Pageable pageable);
+
+    @Query("select new com.veterinary.management.responses.VaccineResponse(v.id, v.name, v.applicationDate, v.expirationDate, an.id, an.name) from Vaccine v left join v.animal an where v.id < :id")
+    List<VaccineResponse> findResponsesByIdLessThan(@Param("id") Long id, Pageable pageable);
+
+    @Query("select new com.veterinary.management.responses.VaccineResponse(v.id, v.name, v.applicationDate, v.expirationDate, an.id, an.name) from Vaccine v left join v.animal an where v.applicationDate between :startDate and :endDate")
+    List<VaccineResponse> findResponsesByApplicationDateBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Query("select concat(str(v.version), '-', str(coalesce(an.version, 0)), '-', str(coalesce(c.version, 0))) from Vaccine v left join v.animal an left join an.customer c where v.id = :id")
+    Optional<String> findVersionsById(@Param("id") Long id);
+
+    @Query("select new com.veterinary.management.responses.VaccineResponse(v.id, v.name, v.applicationDate, v.expirationDate, an.id, an.name) from Vaccine v left join v.animal an where an.id = :animalId order by v.applicationDate desc")
+    List<VaccineResponse> findResponsesByAnimalId(@Param("animalId") Long animalId);
+
+    boolean existsByAnimalIdAndNameAndExpirationDateAfter(Long animalId, String name, LocalDate date);
+
+    boolean existsByAnimalIdAndNameAndExpirationDateAfterAndIdNot(Long animalId, String name, LocalDate date, Long id);
+
+    @Query("select v.name as name, max(v.expirationDate) as expirationDate from Vaccine v where v.animal.id = :animalId group by v.name")
+    List<NameExpiry> findLatestExpiriesByAnimalId(@Param("animalId") Long animalId);
+
+    @Query("select v.id as id, v.animal.id as animalId, v.name as name, v.expirationDate as expirationDate from Vaccine v where v.expirationDate = :expirationDate and v.id > :lastId order by v.id")
+    List<ExpiringVaccine> findExpiringByExpirationDateAndIdGreaterThan(@Param("expirationDate") LocalDate expirationDate, @Param("lastId") Long lastId, Pageable pageable);
+
+    @Query("select v.animal.id as animalId, v.name as name, max(v.expirationDate) as expirationDate from Vaccine v where v.animal.id in :animalIds group by v.animal.id, v.name")
+    List<AnimalNameExpiry> findLatestExpiriesByAnimalIdIn(@Param("animalIds") Collection<Long> animalIds);
+
 }
@@ -0,0 +1,15 @@
+package com.veterinary.management.repositories;
+
+import java.util.List;
+
+import com.veterinary.management.models.Vaccine;
+
+public interface VaccineRepositoryCustom {
+
+    /*
+     * This method inserts the vaccines with JDBC batches.
+     * The animal of every vaccine must already exist, only its id is written.
+     */
+    void insertAll(List<Vaccine> vaccines);
+
+}
@@ -0,0 +1,28 @@
+package com.veterinary.management.repositories;
+
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.veterinary.management.models.Vaccine;
+
+@RequiredArgsConstructor
+public class VaccineRepositoryCustomImpl implements VaccineRepositoryCustom {
+
+    private static final String INSERT_SQL = "INSERT INTO vaccines (version, name, application_date, expiration_date, animal_id) VALUES (0, ?, ?, ?, ?)";
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(List<Vaccine> vaccines) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, vaccines, BATCH_SIZE, (statement, vaccine) -> {
+            statement.setString(1, vaccine.getName());
+            statement.setObject(2, vaccine.getApplicationDate());
+            statement.setObject(3, vaccine.getExpirationDate());
+            statement.setLong(4, vaccine.getAnimal().getId());
+        });
+    }
+}
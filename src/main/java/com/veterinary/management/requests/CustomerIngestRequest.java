@@ -0,0 +1,25 @@
+package com.veterinary.management.requests;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/*
+ * This class is one line of a customer ingest file, a customer with its animals.
+ * The customerId of the animals is ignored.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class CustomerIngestRequest {
+
+    private String name;
+    private String phone;
+    private String email;
+    private String address;
+    private String city;
+    private List<AnimalRequest> animals;
+
+}
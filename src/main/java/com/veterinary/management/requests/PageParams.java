@@ -0,0 +1,67 @@
+package com.veterinary.management.requests;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/*
+ * This class holds the query parameters of a keyset paginated list endpoint.
+ * 
+ * Rows are sorted by id, which is unique and indexed, and a page starts right after the cursor,
+ * so every page costs one index range scan no matter how deep it is.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Getter
+@Setter
+public class PageParams {
+
+    public static final int DEFAULT_SIZE = 50;
+    public static final int MAX_SIZE = 500;
+
+    private Long cursor;
+    private Integer size;
+    private String sort;
+
+    /*
+     * This method returns the page size, bounded by MAX_SIZE
+     */
+    public int limit() {
+        if (size == null || size <= 0) {
+            return DEFAULT_SIZE;
+        }
+        return Math.min(size, MAX_SIZE);
+    }
+
+    /*
+     * This method returns true if the rows are sorted by descending id
+     */
+    public boolean descending() {
+        return "desc".equalsIgnoreCase(sort);
+    }
+
+    /*
+     * This method returns the id the page starts after, the first page starts after the smallest or largest id
+     */
+    public long start() {
+        if (cursor != null) {
+            return cursor;
+        }
+        return descending() ? Long.MAX_VALUE : 0L;
+    }
+
+    /*
+     * This method returns the first page of the given size sorted by id
+     */
+    public Pageable toPageable() {
+        return PageRequest.of(0, limit(), descending() ? Sort.by("id").descending() : Sort.by("id").ascending());
+    }
+
+}
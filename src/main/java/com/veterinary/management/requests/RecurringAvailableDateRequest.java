@@ -0,0 +1,26 @@
+package com.veterinary.management.requests;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Getter
+@Setter
+public class RecurringAvailableDateRequest {
+
+    private List<Long> doctorIds;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private Set<DayOfWeek> daysOfWeek;
+
+}
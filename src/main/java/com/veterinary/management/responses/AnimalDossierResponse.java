@@ -0,0 +1,18 @@
+package com.veterinary.management.responses;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class AnimalDossierResponse {
+
+    private AnimalResponse animal;
+    private List<VaccineResponse> vaccines;
+    private List<AppointmentResponse> appointments;
+
+}
@@ -0,0 +1,24 @@
+package com.veterinary.management.responses;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class AnimalResponse {
+
+    private Long id;
+    private String name;
+    private String species;
+    private String breed;
+    private String gender;
+    private String colour;
+    private LocalDate birthDate;
+    private Long customerId;
+    private String customerName;
+
+}
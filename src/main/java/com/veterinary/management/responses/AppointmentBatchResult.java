@@ -0,0 +1,20 @@
+package com.veterinary.management.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class AppointmentBatchResult {
+
+    public static final String CREATED = "CREATED";
+    public static final String REJECTED = "REJECTED";
+
+    private int index;
+    private String status;
+    private Long appointmentId;
+    private String message;
+
+}
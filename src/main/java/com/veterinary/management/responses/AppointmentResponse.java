@@ -0,0 +1,21 @@
+package com.veterinary.management.responses;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class AppointmentResponse {
+
+    private Long id;
+    private LocalDateTime date;
+    private Long doctorId;
+    private String doctorName;
+    private Long animalId;
+    private String animalName;
+
+}
@@ -0,0 +1,19 @@
+package com.veterinary.management.responses;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class AvailableDateResponse {
+
+    private Long id;
+    private LocalDate date;
+    private Long doctorId;
+    private String doctorName;
+
+}
@@ -0,0 +1,26 @@
+package com.veterinary.management.responses;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/*
+ * This class holds the vaccinations of one species, breed and vaccine in one month.
+ * coverage is the number of vaccinations per animal of the species and breed, null if there are no animals.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class CoverageResponse {
+
+    private String species;
+    private String breed;
+    private String vaccineName;
+    private LocalDate month;
+    private long vaccinations;
+    private long animals;
+    private Double coverage;
+
+}
@@ -0,0 +1,23 @@
+package com.veterinary.management.responses;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/*
+ * errors holds at most veterinary.ingest.max-errors rows, rejected counts all of them.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class CustomerIngestResult {
+
+    private int rows;
+    private int customers;
+    private int animals;
+    private int rejected;
+    private List<ImportRowError> errors;
+
+}
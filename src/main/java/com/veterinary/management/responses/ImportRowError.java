@@ -0,0 +1,18 @@
+package com.veterinary.management.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/*
+ * This class is a rejected row of an import, line is the line number in the uploaded file.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class ImportRowError {
+
+    private int line;
+    private String message;
+
+}
@@ -0,0 +1,33 @@
+package com.veterinary.management.responses;
+
+import java.util.List;
+import java.util.function.Function;
+
+import com.veterinary.management.requests.PageParams;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/*
+ * This class is one page of a keyset paginated list.
+ * nextCursor is the cursor of the next page, or null if this is the last page.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class PageResponse<T> {
+
+    private List<T> items;
+    private Long nextCursor;
+    private int size;
+
+    public static <T> PageResponse<T> of(List<T> items, PageParams pageParams, Function<T, Long> idOf) {
+        Long nextCursor = null;
+        if (!items.isEmpty() && items.size() >= pageParams.limit()) {
+            nextCursor = idOf.apply(items.get(items.size() - 1));
+        }
+        return new PageResponse<>(items, nextCursor, pageParams.limit());
+    }
+
+}
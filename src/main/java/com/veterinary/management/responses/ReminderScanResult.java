@@ -0,0 +1,16 @@
+package com.veterinary.management.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class ReminderScanResult {
+
+    private int partitions;
+    private int scanned;
+    private int created;
+
+}
@@ -0,0 +1,19 @@
+package com.veterinary.management.responses;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class SlotResponse {
+
+    private Long doctorId;
+    private String doctorName;
+    private String city;
+    private LocalDateTime date;
+
+}
@@ -0,0 +1,19 @@
+package com.veterinary.management.responses;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class VaccineImportResult {
+
+    private int rows;
+    private int imported;
+    private int rejected;
+    private List<ImportRowError> errors;
+
+}
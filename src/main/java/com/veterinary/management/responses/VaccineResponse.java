@@ -0,0 +1,21 @@
+package com.veterinary.management.responses;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class VaccineResponse {
+
+    private Long id;
+    private String name;
+    private LocalDate applicationDate;
+    private LocalDate expirationDate;
+    private Long animalId;
+    private String animalName;
+
+}
@@ -1,12 +1,23 @@
 package com.veterinary.management.services;
 
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import com.veterinary.management.exceptions.PreconditionFailedException;
+import com.veterinary.management.exceptions.ConflictException;
 import com.veterinary.management.models.Animal;
 import com.veterinary.management.models.Customer;
 import com.veterinary.management.repositories.AnimalRepository;
+import com.veterinary.management.repositories.CoverageRollupRepository;
+import com.veterinary.management.requests.PageParams;
 import com.veterinary.management.requests.AnimalRequest;
+import com.veterinary.management.responses.AnimalResponse;
 
 @Service
 @RequiredArgsConstructor
@@ -14,14 +25,22 @@ public class AnimalService {
 
     private final AnimalRepository animalRepository;
     private final CustomerService customerService;
+    private final NameSearchService nameSearchService;
+    private final CoverageRollupRepository coverageRollupRepository;
+    private final TransactionTemplate transactionTemplate;
 
     /*
-     * This method returns all the animals in the database
+     * This method returns one page of the animals in the database, sorted by id
      * 
-     * @return the list of all animals
+     * @param pageParams the cursor, size and sort direction of the page
+     * 
+     * @return the animals of the page
      */
-    public List<Animal> getAllAnimals() {
-        return animalRepository.findAll();
+    public List<AnimalResponse> getAllAnimals(PageParams pageParams) {
+        if (pageParams.descending()) {
+            return animalRepository.findResponsesByIdLessThan(pageParams.start(), pageParams.toPageable());
+        }
+        return animalRepository.findResponsesByIdGreaterThan(pageParams.start(), pageParams.toPageable());
     }
 
     /*
@@ -40,6 +59,57 @@ public class AnimalService {
         return animalRepository.findById(id).orElse(null);
     }
 
+    /*
+     * This method returns the versions of an animal and of its owner, the entity tag of its GET endpoint
+     * @param Long id
+     * @return String the joined versions, null if there is no animal with the given id
+     */
+    public String getAnimalVersions(Long id) {
+        if (id == null) {
+            return null;
+        }
+        return animalRepository.findVersionsById(id).orElse(null);
+    }
+
+    /*
+     * This method returns true if there is an animal with the given id
+     * 
+     * @param id the id of the animal
+     * 
+     * @return true if the animal exists
+     */
+    public boolean existsById(Long id) {
+        return id != null && animalRepository.existsById(id);
+    }
+
+    /*
+     * This method returns the animals of a customer together with the customer, in a single query
+     * 
+     * @param customerId the id of the customer
+     * 
+     * @return the list of animals of the customer
+     */
+    public List<Animal> getAnimalsByCustomerId(Long customerId) {
+        if (customerId == null) {
+            return null;
+        }
+        return animalRepository.findWithCustomerByCustomerId(customerId);
+    }
+
+    /*
+     * This method returns which of the given animal ids exist, with a single query
+     * 
+     * @param ids the ids of the animals
+     * 
+     * @return the set of ids that exist
+     */
+    public Set<Long> getExistingAnimalIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return new HashSet<>();
+        }
+        return new HashSet<>(animalRepository.findIdsByIdIn(ids));
+    }
+
     /*
      * This method adds a new animal to the database
      * 
@@ -66,7 +136,13 @@ public class AnimalService {
         }
 
         animal.setCustomer(customer);
-        return animalRepository.save(animal);
+        Animal savedAnimal = transactionTemplate.execute(status -> {
+            Animal saved = animalRepository.save(animal);
+            coverageRollupRepository.addAnimal(saved.getSpecies(), saved.getBreed(), 1);
+            return saved;
+        });
+        nameSearchService.indexAnimal(savedAnimal.getId(), savedAnimal.getName());
+        return savedAnimal;
     }
 
     /*
@@ -76,14 +152,21 @@ public class AnimalService {
      * 
      * @param animalRequest the request for updating an animal
      * 
+     * @param expectedVersion the version of the If-Match header, null to skip the check
+     * 
      * @return the updated animal
      */
-    public Animal updateAnimal(Long id, AnimalRequest animalRequest) {
+    public Animal updateAnimal(Long id, AnimalRequest animalRequest, Long expectedVersion) {
         if (id == null) {
             return null;
         }
         Animal animal = animalRepository.findById(id).orElse(null);
         if (animal != null) {
+            if (expectedVersion != null && !expectedVersion.equals(animal.getVersion())) {
+                throw new PreconditionFailedException("Animal " + id + " is at version " + animal.getVersion());
+            }
+            String oldSpecies = animal.getSpecies();
+            String oldBreed = animal.getBreed();
             animal.setName(animalRequest.getName());
             animal.setSpecies(animalRequest.getSpecies());
             animal.setBreed(animalRequest.getBreed());
@@ -97,7 +180,21 @@ public class AnimalService {
                 throw new UnsupportedOperationException("There is no customer with the given id");
             }
             animal.setCustomer(customer);
-            return animalRepository.save(animal);
+            Animal savedAnimal;
+            try {
+                savedAnimal = transactionTemplate.execute(status -> {
+                    // the animal and its vaccinations move in the rollups when the species or the breed changes
+                    if (!oldSpecies.equals(animal.getSpecies()) || !oldBreed.equals(animal.getBreed())) {
+                        coverageRollupRepository.moveAnimal(id, oldSpecies, oldBreed, animal.getSpecies(), animal.getBreed());
+                    }
+                    return animalRepository.save(animal);
+                });
+            } catch (OptimisticLockingFailureException e) {
+                throw new ConflictException("Animal " + id + " was modified by another request");
+            }
+
+            nameSearchService.indexAnimal(savedAnimal.getId(), savedAnimal.getName());
+            return savedAnimal;
         }
         return null;
     }
@@ -111,18 +208,38 @@ public class AnimalService {
         if (id == null) {
             return;
         }
-        animalRepository.deleteById(id);
+        Animal animal = animalRepository.findById(id).orElse(null);
+        if (animal == null) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                coverageRollupRepository.removeAnimal(id, animal.getSpecies(), animal.getBreed());
+                animalRepository.delete(animal);
+            });
+        } catch (OptimisticLockingFailureException e) {
+            throw new ConflictException("Animal " + id + " was modified by another request");
+        }
+        nameSearchService.removeAnimal(id);
     }
 
     /*
-     * This method returns all animals with the given name
+     * This method returns the animals whose name contains the given name, ignoring case and diacritics
      * 
      * @param name the name of the animal
      * 
-     * @return the list of animals with the given name
+     * @param limit the maximum number of animals to return
+     * 
+     * @return the list of animals with the given name, best matches first
      */
-    public List<Animal> findByName(String name) {
-        return animalRepository.findByNameContaining(name);
+    public List<AnimalResponse> findByName(String name, Integer limit) {
+        List<Long> ids = nameSearchService.searchAnimals(name, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<AnimalResponse> animals = animalRepository.findResponsesByIdIn(ids);
+        animals.sort(Comparator.comparingInt(animal -> ids.indexOf(animal.getId())));
+        return animals;
     }
 
 }
@@ -4,31 +4,64 @@ import lombok.RequiredArgsConstructor;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.veterinary.management.exceptions.BadRequestException;
+import com.veterinary.management.exceptions.ConflictException;
+import com.veterinary.management.exceptions.PreconditionFailedException;
 import com.veterinary.management.models.Animal;
 import com.veterinary.management.models.Appointment;
 import com.veterinary.management.models.Doctor;
+import com.veterinary.management.requests.PageParams;
 import com.veterinary.management.requests.AppointmentRequest;
 import com.veterinary.management.repositories.AppointmentRepository;
+import com.veterinary.management.repositories.AppointmentSlot;
+import com.veterinary.management.repositories.AvailableDateRepository;
+import com.veterinary.management.repositories.AvailableDateSlot;
+import com.veterinary.management.responses.AppointmentResponse;
+import com.veterinary.management.responses.AppointmentBatchResult;
+import com.veterinary.management.utils.Constraints;
+import com.veterinary.management.utils.StripedLocks;
 
 @Service
 @RequiredArgsConstructor
 public class AppointmentService {
 
     private final AppointmentRepository appointmentRepository;
+    private final AvailableDateRepository availableDateRepository;
     private final DoctorService doctorService;
     private final AnimalService animalService;
+    private final StripedLocks bookingLocks;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxService outboxService;
+
+    @Value("${veterinary.booking.max-batch-size:1000}")
+    private int maxBatchSize;
 
     /*
-     * This method handles the request for getting all appointments.
+     * This method handles the request for getting one page of the appointments, sorted by id.
+     * 
+     * @param pageParams the cursor, size and sort direction of the page.
      * 
-     * @return the list of all appointments.
+     * @return the appointments of the page.
      */
-    public List<Appointment> getAllAppointments() {
-        return appointmentRepository.findAll();
+    public List<AppointmentResponse> getAllAppointments(PageParams pageParams) {
+        if (pageParams.descending()) {
+            return appointmentRepository.findResponsesByIdLessThan(pageParams.start(), pageParams.toPageable());
+        }
+        return appointmentRepository.findResponsesByIdGreaterThan(pageParams.start(), pageParams.toPageable());
     }
 
     /*
@@ -47,8 +80,21 @@ public class AppointmentService {
         return appointmentRepository.findById(id).orElse(null);
     }
 
+    /*
+     * This method returns the versions of an appointment and of its doctor, its animal and the animal's owner, the entity tag of its GET endpoint
+     * @param Long id
+     * @return String the joined versions, null if there is no appointment with the given id
+     */
+    public String getAppointmentVersions(Long id) {
+        if (id == null) {
+            return null;
+        }
+        return appointmentRepository.findVersionsById(id).orElse(null);
+    }
+
     /*
      * This method handles the request for adding a new appointment.
+     * Its confirmation and reminder are written to the outbox in the same transaction.
      * 
      * @param appointmentRequest the request for adding a new appointment.
      * 
@@ -57,6 +103,8 @@ public class AppointmentService {
      * @throws UnsupportedOperationException if there is no doctor with the given id
      * 
      * @throws UnsupportedOperationException if there is no animal with the given id
+     * 
+     * @throws ConflictException if the doctor has an appointment on the given date
      */
     public Appointment addAppointment(AppointmentRequest appointmentRequest) {
 
@@ -74,25 +122,159 @@ public class AppointmentService {
             throw new UnsupportedOperationException("There is no animal with the given id");
         }
 
-        /*Check if the doctor is available
-         * Değerlendirme Formu: 18
-         */
-        if (!doctor.isDoctorHasAvailableDateOnDate(appointmentRequest.getDate())) {
-            throw new UnsupportedOperationException("Doctor is not available on the given date");
-        }
+        appointment.setAnimal(animal);
+        appointment.setDate(appointmentRequest.getDate());
 
         /*Check if the doctor is has an appointment on the given date
          * Değerlendirme Formu: 18
+         * The check and the insert run under the lock of the doctor, the unique constraint catches other nodes
          */
-        if (doctor.isDoctorHasAppointmentOnDate(appointmentRequest.getDate())) {
-            throw new UnsupportedOperationException("Doctor has an appointment on the given date");
+        try {
+            return bookingLocks.withLock(doctor.getId(), () -> transactionTemplate.execute(status -> {
+                checkAvailableDate(doctor.getId(), appointmentRequest.getDate());
+                if (appointmentRepository.existsByDoctorIdAndDate(doctor.getId(), appointmentRequest.getDate())) {
+                    throw new ConflictException("Doctor has an appointment on the given date");
+                }
+                Appointment savedAppointment = appointmentRepository.saveAndFlush(appointment);
+                outboxService.appointmentsBooked(List.of(savedAppointment));
+                return savedAppointment;
+            }));
+        } catch (DataIntegrityViolationException e) {
+            if (Constraints.isViolated(e, Appointment.UNIQUE_DOCTOR_DATE)) {
+                throw new ConflictException("Doctor has an appointment on the given date");
+            }
+            throw e;
         }
+    }
 
-        appointment.setAnimal(animal);
-        appointment.setDate(appointmentRequest.getDate());
-        appointmentRepository.save(appointment);
+    /*
+     * This method handles the request for adding many appointments at once.
+     * 
+     * Doctors, animals, available dates and existing appointments are resolved with one query each,
+     * the accepted appointments are inserted with JDBC batches in a single transaction.
+     * 
+     * @param appointmentRequests the requests for adding new appointments.
+     * 
+     * @return the result of every request, in the same order.
+     * 
+     * @throws BadRequestException if there are no requests or more than the batch limit
+     * 
+     * @throws ConflictException if one of the slots was booked by another node meanwhile
+     */
+    public List<AppointmentBatchResult> addAppointments(List<AppointmentRequest> appointmentRequests) {
+        if (appointmentRequests == null || appointmentRequests.isEmpty()) {
+            throw new BadRequestException("At least one appointment is required");
+        }
+        if (appointmentRequests.size() > maxBatchSize) {
+            throw new BadRequestException("At most " + maxBatchSize + " appointments can be added at once");
+        }
+
+        Set<Long> doctorIds = new HashSet<>();
+        Set<Long> animalIds = new HashSet<>();
+        for (AppointmentRequest appointmentRequest : appointmentRequests) {
+            if (appointmentRequest != null) {
+                doctorIds.add(appointmentRequest.getDoctorId());
+                animalIds.add(appointmentRequest.getAnimalId());
+            }
+        }
+        doctorIds.remove(null);
+        animalIds.remove(null);
+        Set<Long> existingDoctorIds = doctorService.getExistingDoctorIds(doctorIds);
+        Set<Long> existingAnimalIds = animalService.getExistingAnimalIds(animalIds);
+
+        try {
+            return bookingLocks.withLocks(existingDoctorIds, () -> transactionTemplate.execute(
+                    status -> bookAll(appointmentRequests, existingDoctorIds, existingAnimalIds)));
+        } catch (DataIntegrityViolationException e) {
+            if (Constraints.isViolated(e, Appointment.UNIQUE_DOCTOR_DATE)) {
+                throw new ConflictException("One of the appointments was booked by another request meanwhile");
+            }
+            throw e;
+        }
+    }
 
-        return appointmentRepository.save(appointment);
+    /*
+     * This method validates the requests against the existing appointments and inserts the accepted ones.
+     * It must run in a transaction while holding the locks of all the doctors.
+     */
+    private List<AppointmentBatchResult> bookAll(List<AppointmentRequest> appointmentRequests, Set<Long> doctorIds, Set<Long> animalIds) {
+        LocalDateTime startDate = appointmentRequests.stream().filter(Objects::nonNull).map(AppointmentRequest::getDate)
+                .filter(Objects::nonNull).min(LocalDateTime::compareTo).orElse(null);
+        LocalDateTime endDate = appointmentRequests.stream().filter(Objects::nonNull).map(AppointmentRequest::getDate)
+                .filter(Objects::nonNull).max(LocalDateTime::compareTo).orElse(null);
+
+        Map<Long, Set<LocalDate>> availableDays = new HashMap<>();
+        Map<Long, Set<LocalDateTime>> bookedDates = new HashMap<>();
+        if (!doctorIds.isEmpty() && startDate != null) {
+            for (AvailableDateSlot slot : availableDateRepository.findSlotsByDoctorIdInAndDateBetween(doctorIds, startDate.toLocalDate(), endDate.toLocalDate())) {
+                availableDays.computeIfAbsent(slot.getDoctorId(), doctorId -> new HashSet<>()).add(slot.getDate());
+            }
+            for (AppointmentSlot slot : appointmentRepository.findSlotsByDoctorIdInAndDateBetween(doctorIds, startDate, endDate)) {
+                bookedDates.computeIfAbsent(slot.getDoctorId(), doctorId -> new HashSet<>()).add(slot.getDate());
+            }
+        }
+
+        List<AppointmentBatchResult> results = new ArrayList<>(appointmentRequests.size());
+        List<AppointmentBatchResult> createdResults = new ArrayList<>();
+        List<Appointment> appointments = new ArrayList<>();
+        for (int index = 0; index < appointmentRequests.size(); index++) {
+            AppointmentRequest appointmentRequest = appointmentRequests.get(index);
+            String error = null;
+            if (appointmentRequest == null || appointmentRequest.getDate() == null
+                    || appointmentRequest.getDoctorId() == null || appointmentRequest.getAnimalId() == null) {
+                error = "Date, doctor id and animal id are required";
+            } else if (!doctorIds.contains(appointmentRequest.getDoctorId())) {
+                error = "There is no doctor with the given id";
+            } else if (!animalIds.contains(appointmentRequest.getAnimalId())) {
+                error = "There is no animal with the given id";
+            } else if (!availableDays.getOrDefault(appointmentRequest.getDoctorId(), Set.of()).contains(appointmentRequest.getDate().toLocalDate())) {
+                error = "Doctor is not available on the given date";
+            } else if (!bookedDates.computeIfAbsent(appointmentRequest.getDoctorId(), doctorId -> new HashSet<>())
+                    .add(appointmentRequest.getDate())) {
+                error = "Doctor has an appointment on the given date";
+            }
+
+            if (error != null) {
+                results.add(new AppointmentBatchResult(index, AppointmentBatchResult.REJECTED, null, error));
+                continue;
+            }
+
+            Doctor doctor = new Doctor();
+            doctor.setId(appointmentRequest.getDoctorId());
+            Animal animal = new Animal();
+            animal.setId(appointmentRequest.getAnimalId());
+            Appointment appointment = new Appointment();
+            appointment.setDate(appointmentRequest.getDate());
+            appointment.setDoctor(doctor);
+            appointment.setAnimal(animal);
+            appointments.add(appointment);
+
+            AppointmentBatchResult result = new AppointmentBatchResult(index, AppointmentBatchResult.CREATED, null, null);
+            createdResults.add(result);
+            results.add(result);
+        }
+
+        if (!appointments.isEmpty()) {
+            List<Long> ids = appointmentRepository.insertAll(appointments);
+            for (int i = 0; i < ids.size(); i++) {
+                createdResults.get(i).setAppointmentId(ids.get(i));
+                appointments.get(i).setId(ids.get(i));
+            }
+            outboxService.appointmentsBooked(appointments);
+        }
+        return results;
+    }
+
+    /*
+     * This method checks the available date of the doctor with one probe of the dates table,
+     * without loading the available dates of the doctor. It must run in the booking transaction while holding the lock of the doctor.
+     * 
+     * @throws UnsupportedOperationException if the doctor has no available date on the day of the given date
+     */
+    private void checkAvailableDate(Long doctorId, LocalDateTime date) {
+        if (!availableDateRepository.existsByDoctorIdAndDate(doctorId, date.toLocalDate())) {
+            throw new UnsupportedOperationException("Doctor is not available on the given date");
+        }
     }
 
     /*
@@ -102,13 +284,19 @@ public class AppointmentService {
      * 
      * @param appointmentRequest the request for updating an appointment.
      * 
+     * @param expectedVersion the version of the If-Match header, null to skip the check.
+     * 
      * @return the updated appointment.
      * 
      * @throws UnsupportedOperationException if there is no doctor with the given id
      * 
      * @throws UnsupportedOperationException if there is no animal with the given id
+     * 
+     * @throws ConflictException if the doctor has another appointment on the given date
+     * 
+     * @throws PreconditionFailedException if the appointment is not at the expected version
      */
-    public Appointment updateAppointment(Long id, AppointmentRequest appointmentRequest) {
+    public Appointment updateAppointment(Long id, AppointmentRequest appointmentRequest, Long expectedVersion) {
         if (id == null) {
             throw new UnsupportedOperationException("Id cannot be null");
         }
@@ -117,22 +305,14 @@ public class AppointmentService {
         if (appointment == null) {
             throw new UnsupportedOperationException("There is no appointment with the given id");
         }
+        if (expectedVersion != null && !expectedVersion.equals(appointment.getVersion())) {
+            throw new PreconditionFailedException("Appointment " + id + " is at version " + appointment.getVersion());
+        }
         Doctor doctor = doctorService.getDoctorById(appointmentRequest.getDoctorId());
         if (doctor == null) {
             throw new UnsupportedOperationException("There is no doctor with the given id");
         }
 
-        //Check if the doctor is available
-        if (!doctor.isDoctorHasAvailableDateOnDate(appointmentRequest.getDate())) {
-            throw new UnsupportedOperationException("Doctor is not available on the given date");
-        }
-
-        //Check if the doctor is has an appointment on the given date
-        if (doctor.isDoctorHasAppointmentOnDate(appointmentRequest.getDate())) {
-            throw new UnsupportedOperationException("Doctor has an appointment on the given date");
-        }
-
-
         appointment.setDoctor(doctor);
         Animal animal = animalService.getAnimalById(appointmentRequest.getAnimalId());
         if (animal == null) {
@@ -140,12 +320,30 @@ public class AppointmentService {
         }
         appointment.setAnimal(animal);
         appointment.setDate(appointmentRequest.getDate());
-        return appointmentRepository.save(appointment);
 
+        //Check if the doctor is has another appointment on the given date
+        try {
+            return bookingLocks.withLock(doctor.getId(), () -> transactionTemplate.execute(status -> {
+                checkAvailableDate(doctor.getId(), appointmentRequest.getDate());
+                if (appointmentRepository.existsByDoctorIdAndDateAndIdNot(doctor.getId(), appointmentRequest.getDate(), id)) {
+                    throw new ConflictException("Doctor has an appointment on the given date");
+                }
+                Appointment savedAppointment = appointmentRepository.saveAndFlush(appointment);
+                outboxService.appointmentChanged(savedAppointment);
+                return savedAppointment;
+            }));
+        } catch (DataIntegrityViolationException e) {
+            if (Constraints.isViolated(e, Appointment.UNIQUE_DOCTOR_DATE)) {
+                throw new ConflictException("Doctor has an appointment on the given date");
+            }
+            throw e;
+        } catch (OptimisticLockingFailureException e) {
+            throw new ConflictException("Appointment " + id + " was modified by another request");
+        }
     }
 
     /*
-     * This method handles the request for deleting an appointment.
+     * This method handles the request for deleting an appointment, the owner of the animal is notified of the cancellation.
      * 
      * @param id the id of the appointment.
      * 
@@ -155,7 +353,18 @@ public class AppointmentService {
         if (id == null) {
             throw new UnsupportedOperationException("Id cannot be null");
         }
-        appointmentRepository.deleteById(id);
+        Appointment appointment = appointmentRepository.findById(id).orElse(null);
+        if (appointment == null) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                outboxService.appointmentCancelled(appointment);
+                appointmentRepository.delete(appointment);
+            });
+        } catch (OptimisticLockingFailureException e) {
+            throw new ConflictException("Appointment " + id + " was modified by another request");
+        }
     }
 
     /*
@@ -199,8 +408,8 @@ public class AppointmentService {
      * 
      * @return the list of all the appointments for the specific doctor between the two dates.
      */
-    public List<Appointment> findByDoctorIdAndDateRange(Long doctorId, LocalDate startDate, LocalDate endDate) {
-        return appointmentRepository.findByDoctorIdAndDateBetween(doctorId ,startDate.atStartOfDay(), endDate.atStartOfDay());
+    public List<AppointmentResponse> findByDoctorIdAndDateRange(Long doctorId, LocalDate startDate, LocalDate endDate) {
+        return appointmentRepository.findResponsesByDoctorIdAndDateBetween(doctorId ,startDate.atStartOfDay(), endDate.atStartOfDay());
     }
 
     /*
@@ -214,7 +423,7 @@ public class AppointmentService {
      * 
      * @return the list of all the appointments for the specific animal between the two dates.
      */
-    public List<Appointment> findByAnimalIdAndDateRange(Long animalId, LocalDate startDate, LocalDate endDate) {
-        return appointmentRepository.findByAnimalIdAndDateBetween(animalId, startDate.atStartOfDay(), endDate.atStartOfDay());
+    public List<AppointmentResponse> findByAnimalIdAndDateRange(Long animalId, LocalDate startDate, LocalDate endDate) {
+        return appointmentRepository.findResponsesByAnimalIdAndDateBetween(animalId, startDate.atStartOfDay(), endDate.atStartOfDay());
     }
 }
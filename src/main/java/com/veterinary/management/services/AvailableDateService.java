@@ -2,14 +2,32 @@ package com.veterinary.management.services;
 
 import lombok.RequiredArgsConstructor;
 
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.veterinary.management.exceptions.PreconditionFailedException;
+import com.veterinary.management.exceptions.ConflictException;
+import com.veterinary.management.exceptions.BadRequestException;
+import com.veterinary.management.requests.PageParams;
 import com.veterinary.management.requests.AvailableDateRequest;
+import com.veterinary.management.requests.RecurringAvailableDateRequest;
 import com.veterinary.management.models.AvailableDate;
 import com.veterinary.management.models.Doctor;
 import com.veterinary.management.repositories.AvailableDateRepository;
+import com.veterinary.management.responses.AvailableDateResponse;
+import com.veterinary.management.responses.RecurringAvailableDateResult;
+import com.veterinary.management.utils.Constraints;
 
 @Service
 @RequiredArgsConstructor
@@ -17,14 +35,22 @@ public class AvailableDateService {
 
     private final AvailableDateRepository availableDateRepository;
     private final DoctorService doctorService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${veterinary.dates.max-recurring-dates:20000}")
+    private int maxRecurringDates;
 
     /*
-     * This method returns all available dates
-     * @return List<AvailableDate>
+     * This method returns one page of the available dates, sorted by id
+     * @param PageParams pageParams
+     * @return List<AvailableDateResponse>
      * 
      */
-    public List<AvailableDate> getAllAvailableDates() {
-        return availableDateRepository.findAll();
+    public List<AvailableDateResponse> getAllAvailableDates(PageParams pageParams) {
+        if (pageParams.descending()) {
+            return availableDateRepository.findResponsesByIdLessThan(pageParams.start(), pageParams.toPageable());
+        }
+        return availableDateRepository.findResponsesByIdGreaterThan(pageParams.start(), pageParams.toPageable());
     }
 
     /*
@@ -40,6 +66,18 @@ public class AvailableDateService {
         return availableDateRepository.findById(id).orElse(null);
     }
 
+    /*
+     * This method returns the versions of an available date and of its doctor, the entity tag of its GET endpoint
+     * @param Long id
+     * @return String the joined versions, null if there is no available date with the given id
+     */
+    public String getAvailableDateVersions(Long id) {
+        if (id == null) {
+            return null;
+        }
+        return availableDateRepository.findVersionsById(id).orElse(null);
+    }
+
     /*
      * This method adds an available date
      * @param AvailableDateRequest availableDateRequest
@@ -58,29 +96,47 @@ public class AvailableDateService {
         availableDate.setDoctor(doctor);
         availableDate.setDate(availableDateRequest.getDate());
 
-        return availableDateRepository.save(availableDate);
+        AvailableDate savedAvailableDate;
+        try {
+            savedAvailableDate = availableDateRepository.save(availableDate);
+        } catch (DataIntegrityViolationException e) {
+            throw duplicateDate(e, doctor.getId(), availableDate.getDate());
+        }
+        return savedAvailableDate;
     }
 
     /*
      * This method updates an available date
      * @param Long id
      * @param AvailableDateRequest availableDateRequest
+     * @param Long expectedVersion the version of the If-Match header, null to skip the check
      * @return AvailableDate
      * throws UnsupportedOperationException if doctor with id not found
      */
-    public AvailableDate updateAvailableDate(Long id, AvailableDateRequest availableDateRequest) {
+    public AvailableDate updateAvailableDate(Long id, AvailableDateRequest availableDateRequest, Long expectedVersion) {
         if (id == null) {
             return null;
         }
         AvailableDate availableDate = availableDateRepository.findById(id).orElse(null);
         if (availableDate != null) {
+            if (expectedVersion != null && !expectedVersion.equals(availableDate.getVersion())) {
+                throw new PreconditionFailedException("Available date " + id + " is at version " + availableDate.getVersion());
+            }
             Doctor doctor = doctorService.getDoctorById(availableDateRequest.getDoctorId());
             if (doctor == null) {
                 throw new UnsupportedOperationException("Doctor with id " + availableDateRequest.getDoctorId() + " not found");
             }
             availableDate.setDoctor(doctor);
             availableDate.setDate(availableDateRequest.getDate());
-            return availableDateRepository.save(availableDate);
+            AvailableDate savedAvailableDate;
+            try {
+                savedAvailableDate = availableDateRepository.save(availableDate);
+            } catch (OptimisticLockingFailureException e) {
+                throw new ConflictException("Available date " + id + " was modified by another request");
+            } catch (DataIntegrityViolationException e) {
+                throw duplicateDate(e, doctor.getId(), availableDate.getDate());
+            }
+            return savedAvailableDate;
         }
         return null;
     }
@@ -103,4 +159,70 @@ public class AvailableDateService {
         return null;
     }
 
+    /*
+     * This method adds the available dates of the doctors on the given days of the week between two dates.
+     * The dates are inserted with JDBC batches in a single transaction, dates the doctors already have
+     * are skipped by the unique constraint on doctor and date, so overlapping requests never add a date twice.
+     * @param RecurringAvailableDateRequest recurringAvailableDateRequest
+     * @return RecurringAvailableDateResult
+     * throws BadRequestException if the request is incomplete or expands to too many dates
+     * throws UnsupportedOperationException if doctor with id not found
+     */
+    public RecurringAvailableDateResult addRecurringAvailableDates(RecurringAvailableDateRequest recurringAvailableDateRequest) {
+        if (recurringAvailableDateRequest == null || recurringAvailableDateRequest.getDoctorIds() == null
+                || recurringAvailableDateRequest.getDoctorIds().isEmpty()
+                || recurringAvailableDateRequest.getStartDate() == null || recurringAvailableDateRequest.getEndDate() == null) {
+            throw new BadRequestException("Doctor ids, start date and end date are required");
+        }
+        LocalDate startDate = recurringAvailableDateRequest.getStartDate();
+        LocalDate endDate = recurringAvailableDateRequest.getEndDate();
+        if (endDate.isBefore(startDate)) {
+            throw new BadRequestException("End date cannot be before start date");
+        }
+        Set<DayOfWeek> daysOfWeek = recurringAvailableDateRequest.getDaysOfWeek() == null || recurringAvailableDateRequest.getDaysOfWeek().isEmpty()
+                ? EnumSet.allOf(DayOfWeek.class)
+                : EnumSet.copyOf(recurringAvailableDateRequest.getDaysOfWeek());
+
+        Set<Long> doctorIds = new LinkedHashSet<>(recurringAvailableDateRequest.getDoctorIds());
+        doctorIds.remove(null);
+        Set<Long> existingDoctorIds = doctorService.getExistingDoctorIds(doctorIds);
+        for (Long doctorId : doctorIds) {
+            if (!existingDoctorIds.contains(doctorId)) {
+                throw new UnsupportedOperationException("Doctor with id " + doctorId + " not found");
+            }
+        }
+
+        List<LocalDate> dates = new ArrayList<>();
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            if (daysOfWeek.contains(date.getDayOfWeek())) {
+                dates.add(date);
+            }
+            if ((long) dates.size() * doctorIds.size() > maxRecurringDates) {
+                throw new BadRequestException("At most " + maxRecurringDates + " available dates can be added at once");
+            }
+        }
+
+        List<AvailableDate> availableDates = new ArrayList<>();
+        for (Long doctorId : doctorIds) {
+            Doctor doctor = new Doctor();
+            doctor.setId(doctorId);
+            for (LocalDate date : dates) {
+                availableDates.add(new AvailableDate(null, null, date, doctor));
+            }
+        }
+        int added = transactionTemplate.execute(status -> availableDateRepository.insertAll(availableDates));
+        int requested = availableDates.size();
+        return new RecurringAvailableDateResult(requested, added, requested - added);
+    }
+
+    /*
+     * This method turns a violation of the unique doctor and date constraint into a conflict, other violations are rethrown
+     */
+    private static RuntimeException duplicateDate(DataIntegrityViolationException e, Long doctorId, LocalDate date) {
+        if (Constraints.isViolated(e, AvailableDate.UNIQUE_DOCTOR_DATE)) {
+            return new ConflictException("Doctor " + doctorId + " already has an available date on " + date);
+        }
+        return e;
+    }
+
 }
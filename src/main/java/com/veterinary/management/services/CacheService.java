@@ -0,0 +1,39 @@
+package com.veterinary.management.services;
+
+import lombok.RequiredArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.veterinary.management.responses.CacheStatsResponse;
+
+@Service
+@RequiredArgsConstructor
+public class CacheService {
+
+    private final CacheManager cacheManager;
+
+    /*
+     * This method returns the size, hit, miss and eviction counts of every cache
+     * @return List<CacheStatsResponse>
+     * 
+     */
+    public List<CacheStatsResponse> getCacheStats() {
+        List<CacheStatsResponse> cacheStats = new ArrayList<>();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache instanceof CaffeineCache caffeineCache) {
+                CacheStats stats = caffeineCache.getNativeCache().stats();
+                cacheStats.add(new CacheStatsResponse(name, caffeineCache.getNativeCache().estimatedSize(),
+                        stats.hitCount(), stats.missCount(), stats.hitRate(), stats.evictionCount()));
+            }
+        }
+        return cacheStats;
+    }
+}
@@ -0,0 +1,50 @@
+package com.veterinary.management.services;
+
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.veterinary.management.exceptions.BadRequestException;
+import com.veterinary.management.repositories.CoverageRollupRepository;
+import com.veterinary.management.responses.CoverageResponse;
+
+/*
+ * This class serves the vaccination coverage statistics from the rollup tables.
+ * The rollups are kept up to date by the writes of VaccineService, AnimalService and CustomerService,
+ * rebuild is only needed after the tables are created or after changes made outside of the application.
+ */
+@Service
+@RequiredArgsConstructor
+public class CoverageService {
+
+    private final CoverageRollupRepository coverageRollupRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /*
+     * This method returns the vaccination coverage by species, breed, vaccine name and month
+     * @param String species null for all species
+     * @param String breed null for all breeds
+     * @param String vaccineName null for all vaccines
+     * @param LocalDate from the first month, null for no lower bound
+     * @param LocalDate to the last month, null for no upper bound
+     * @return List<CoverageResponse>
+     * throws BadRequestException if from is after to
+     */
+    public List<CoverageResponse> getCoverage(String species, String breed, String vaccineName, LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new BadRequestException("from must not be after to");
+        }
+        return coverageRollupRepository.findCoverage(species, breed, vaccineName, from, to);
+    }
+
+    /*
+     * This method recomputes the rollups from the vaccines and animals tables
+     */
+    public void rebuild() {
+        transactionTemplate.executeWithoutResult(status -> coverageRollupRepository.rebuild());
+    }
+}
@@ -0,0 +1,187 @@
+package com.veterinary.management.services;
+
+import lombok.RequiredArgsConstructor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.veterinary.management.exceptions.ServiceUnavailableException;
+import com.veterinary.management.models.Animal;
+import com.veterinary.management.models.Customer;
+import com.veterinary.management.repositories.CoverageRollupRepository;
+import com.veterinary.management.repositories.CustomerRepository;
+import com.veterinary.management.requests.AnimalRequest;
+import com.veterinary.management.requests.CustomerIngestRequest;
+import com.veterinary.management.responses.CustomerIngestResult;
+import com.veterinary.management.responses.ImportRowError;
+
+import jakarta.annotation.PostConstruct;
+
+/*
+ * This class ingests customers with their animals from NDJSON files, one customer per line.
+ *
+ * The file is read as a stream, chunk-size customers at a time. Every chunk is persisted in its own transaction:
+ * the ids come from the pooled sequences without a round trip per row, the rows are flushed in JDBC batches
+ * and the persistence context is cleared, so memory does not grow with the size of the file.
+ * The request body is only read as fast as the chunks are written, which slows the client down over TCP,
+ * and at most max-concurrent ingests run at once, others are refused with 503.
+ * A chunk that was written stays written when a later chunk fails.
+ */
+@Service
+@RequiredArgsConstructor
+public class CustomerIngestService {
+
+    private final CustomerRepository customerRepository;
+    private final CoverageRollupRepository coverageRollupRepository;
+    private final NameSearchService nameSearchService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${veterinary.ingest.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${veterinary.ingest.max-concurrent:2}")
+    private int maxConcurrent;
+
+    @Value("${veterinary.ingest.max-errors:1000}")
+    private int maxErrors;
+
+    private Semaphore permits;
+
+    @PostConstruct
+    public void init() {
+        permits = new Semaphore(maxConcurrent);
+    }
+
+    /*
+     * This method ingests the customers and animals of the file
+     * @param InputStream inputStream the file, one JSON customer with an optional animals array per line
+     * @return CustomerIngestResult the number of rows, ingested customers and animals, and the rejected rows
+     * throws ServiceUnavailableException if max-concurrent ingests are already running
+     */
+    public CustomerIngestResult ingest(InputStream inputStream) {
+        if (!permits.tryAcquire()) {
+            throw new ServiceUnavailableException("Too many ingests are running, retry later");
+        }
+        try {
+            CustomerIngestResult result = new CustomerIngestResult(0, 0, 0, 0, new ArrayList<>());
+            List<Customer> chunk = new ArrayList<>(chunkSize);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+                int lineNumber = 0;
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    result.setRows(result.getRows() + 1);
+                    Customer customer;
+                    try {
+                        customer = toCustomer(objectMapper.readValue(line, CustomerIngestRequest.class));
+                    } catch (JsonProcessingException e) {
+                        reject(result, lineNumber, "Invalid JSON: " + e.getOriginalMessage());
+                        continue;
+                    } catch (IllegalArgumentException e) {
+                        reject(result, lineNumber, e.getMessage());
+                        continue;
+                    }
+                    chunk.add(customer);
+                    if (chunk.size() >= chunkSize) {
+                        ingestChunk(chunk, result);
+                        chunk = new ArrayList<>(chunkSize);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (!chunk.isEmpty()) {
+                ingestChunk(chunk, result);
+            }
+            return result;
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void ingestChunk(List<Customer> chunk, CustomerIngestResult result) {
+        List<Animal> animals = new ArrayList<>();
+        for (Customer customer : chunk) {
+            animals.addAll(customer.getAnimals());
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            customerRepository.persistAll(chunk);
+            coverageRollupRepository.addAnimals(animals, 1);
+        });
+        for (Customer customer : chunk) {
+            nameSearchService.indexCustomer(customer.getId(), customer.getName());
+        }
+        for (Animal animal : animals) {
+            nameSearchService.indexAnimal(animal.getId(), animal.getName());
+        }
+        result.setCustomers(result.getCustomers() + chunk.size());
+        result.setAnimals(result.getAnimals() + animals.size());
+    }
+
+    private void reject(CustomerIngestResult result, int lineNumber, String message) {
+        result.setRejected(result.getRejected() + 1);
+        if (result.getErrors().size() < maxErrors) {
+            result.getErrors().add(new ImportRowError(lineNumber, message));
+        }
+    }
+
+    /*
+     * This method builds the customer and its animals of a line
+     * throws IllegalArgumentException if a required field is missing
+     */
+    private static Customer toCustomer(CustomerIngestRequest request) {
+        if (isBlank(request.getName()) || isBlank(request.getEmail()) || isBlank(request.getPhone())
+                || isBlank(request.getAddress()) || isBlank(request.getCity())) {
+            throw new IllegalArgumentException("name, email, phone, address and city are required");
+        }
+        Customer customer = new Customer();
+        customer.setName(request.getName());
+        customer.setEmail(request.getEmail());
+        customer.setPhone(request.getPhone());
+        customer.setAddress(request.getAddress());
+        customer.setCity(request.getCity());
+
+        List<Animal> animals = new ArrayList<>();
+        if (request.getAnimals() != null) {
+            for (AnimalRequest animalRequest : request.getAnimals()) {
+                if (animalRequest == null || isBlank(animalRequest.getName()) || isBlank(animalRequest.getSpecies())
+                        || isBlank(animalRequest.getBreed()) || isBlank(animalRequest.getGender())
+                        || isBlank(animalRequest.getColour()) || animalRequest.getBirthDate() == null) {
+                    throw new IllegalArgumentException("name, species, breed, gender, colour and birthDate are required for every animal");
+                }
+                Animal animal = new Animal();
+                animal.setName(animalRequest.getName());
+                animal.setSpecies(animalRequest.getSpecies());
+                animal.setBreed(animalRequest.getBreed());
+                animal.setGender(animalRequest.getGender());
+                animal.setColour(animalRequest.getColour());
+                animal.setBirthDate(animalRequest.getBirthDate());
+                animal.setCustomer(customer);
+                animals.add(animal);
+            }
+        }
+        customer.setAnimals(animals);
+        return customer;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
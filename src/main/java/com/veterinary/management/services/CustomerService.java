@@ -1,11 +1,22 @@
 package com.veterinary.management.services;
 
+import java.util.Comparator;
 import java.util.List;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.veterinary.management.exceptions.PreconditionFailedException;
+import com.veterinary.management.exceptions.ConflictException;
 import com.veterinary.management.repositories.CustomerRepository;
+import com.veterinary.management.requests.PageParams;
 import com.veterinary.management.requests.CustomerRequest;
 import com.veterinary.management.models.Customer;
+import com.veterinary.management.models.PurgeTask;
 
 import lombok.RequiredArgsConstructor;
 
@@ -14,25 +25,50 @@ import lombok.RequiredArgsConstructor;
 public class CustomerService {
 
     private final CustomerRepository customerRepository;
+    private final NameSearchService nameSearchService;
+    private final PurgeService purgeService;
+    private final TransactionTemplate transactionTemplate;
 
     /*
-     * This method deletes a customer by id
+     * This method marks a customer as deleted and writes the task that purges its animals, their vaccines and appointments
+     * @param Long id
+     * @return PurgeTask the task, its progress is readable at once, null if there is no customer with the given id
      */
-    public void deleteById(Long id) {
+    @CacheEvict(cacheNames = "customers", key = "#id", condition = "#id != null")
+    public PurgeTask deleteById(Long id) {
         if (id == null) {
-            return;
+            return null;
+        }
+        Customer customer = customerRepository.findById(id).orElse(null);
+        if (customer == null) {
+            return null;
         }
-        customerRepository.deleteById(id);
+        PurgeTask purgeTask;
+        try {
+            purgeTask = transactionTemplate.execute(status -> {
+                customer.setDeleted(true);
+                customerRepository.save(customer);
+                return purgeService.createTask(PurgeTask.CUSTOMER, id);
+            });
+        } catch (OptimisticLockingFailureException e) {
+            throw new ConflictException("Customer " + id + " was modified by another request");
+        }
+        nameSearchService.removeCustomer(id);
+        return purgeTask;
     }
 
 
     /*
-     * This method returns all customers
+     * This method returns one page of the customers, sorted by id
+     * @param PageParams pageParams
      * @return List<Customer>
      * 
      */
-    public List<Customer> getAllCustomers() {
-        return customerRepository.findAll();
+    public List<Customer> getAllCustomers(PageParams pageParams) {
+        if (pageParams.descending()) {
+            return customerRepository.findByIdLessThan(pageParams.start(), pageParams.toPageable());
+        }
+        return customerRepository.findByIdGreaterThan(pageParams.start(), pageParams.toPageable());
     }
 
     /*
@@ -41,6 +77,7 @@ public class CustomerService {
      * @return Customer
      * 
      */
+    @Cacheable(cacheNames = "customers", key = "#id", condition = "#id != null", unless = "#result == null")
     public Customer getCustomerById(Long id) {
         if (id == null) {
             return null;
@@ -48,6 +85,42 @@ public class CustomerService {
         return customerRepository.findById(id).orElse(null);
     }
 
+    /*
+     * This method reads a customer from the database and replaces its cached entry, for when the cached customer is outdated
+     * @param Long id
+     * @return Customer
+     */
+    @Caching(evict = @CacheEvict(cacheNames = "customers", key = "#id", condition = "#id != null", beforeInvocation = true),
+            put = @CachePut(cacheNames = "customers", key = "#id", condition = "#id != null", unless = "#result == null"))
+    public Customer reloadCustomerById(Long id) {
+        if (id == null) {
+            return null;
+        }
+        return customerRepository.findById(id).orElse(null);
+    }
+
+    /*
+     * This method returns the version of a customer, the entity tag of its GET endpoint
+     * @param Long id
+     * @return Long the version, null if there is no customer with the given id
+     */
+    public Long getCustomerVersion(Long id) {
+        if (id == null) {
+            return null;
+        }
+        return customerRepository.findVersionById(id).orElse(null);
+    }
+
+    /*
+     * This method returns true if there is a customer with the given id
+     * @param Long id
+     * @return boolean
+     * 
+     */
+    public boolean existsById(Long id) {
+        return id != null && customerRepository.existsById(id);
+    }
+
     /*
      * This method adds a customer
      * @param CustomerRequest customerRequest
@@ -62,7 +135,9 @@ public class CustomerService {
         customer.setPhone(customerRequest.getPhone());
         customer.setAddress(customerRequest.getAddress());
         customer.setCity(customerRequest.getCity());
-        return customerRepository.save(customer);
+        Customer savedCustomer = customerRepository.save(customer);
+        nameSearchService.indexCustomer(savedCustomer.getId(), savedCustomer.getName());
+        return savedCustomer;
     }
 
 
@@ -70,21 +145,34 @@ public class CustomerService {
      * This method updates a customer
      * @param Long id
      * @param CustomerRequest customerRequest
+     * @param Long expectedVersion the version of the If-Match header, null to skip the check
      * @return Customer
      * 
      */
-    public Customer updateCustomer(Long id, CustomerRequest customerRequest) {
+    @CachePut(cacheNames = "customers", key = "#id", condition = "#id != null", unless = "#result == null")
+    public Customer updateCustomer(Long id, CustomerRequest customerRequest, Long expectedVersion) {
         if (id == null) {
             return null;
         }
         Customer customer = customerRepository.findById(id).orElse(null);
         if (customer != null) {
+            if (expectedVersion != null && !expectedVersion.equals(customer.getVersion())) {
+                throw new PreconditionFailedException("Customer " + id + " is at version " + customer.getVersion());
+            }
             customer.setName(customerRequest.getName());
             customer.setEmail(customerRequest.getEmail());
             customer.setPhone(customerRequest.getPhone());
             customer.setAddress(customerRequest.getAddress());
             customer.setCity(customerRequest.getCity());
-            return customerRepository.save(customer);
+            Customer savedCustomer;
+            try {
+                savedCustomer = customerRepository.save(customer);
+            } catch (OptimisticLockingFailureException e) {
+                throw new ConflictException("Customer " + id + " was modified by another request");
+            }
+
+            nameSearchService.indexCustomer(savedCustomer.getId(), savedCustomer.getName());
+            return savedCustomer;
         }
         return null;
     }
@@ -103,13 +191,20 @@ public class CustomerService {
 
 
     /*
-     * This method returns a customer by name
+     * This method returns the customers whose name contains the given name, ignoring case and diacritics
      * @param String name
-     * @return Customer
+     * @param Integer limit
+     * @return List<Customer> best matches first
      * 
      */
-    public List<Customer> findByName(String name) {
-        return customerRepository.findByNameContaining(name);
+    public List<Customer> findByName(String name, Integer limit) {
+        List<Long> ids = nameSearchService.searchCustomers(name, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<Customer> customers = customerRepository.findAllById(ids);
+        customers.sort(Comparator.comparingInt(customer -> ids.indexOf(customer.getId())));
+        return customers;
     }
 
 }
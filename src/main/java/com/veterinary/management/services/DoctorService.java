@@ -1,11 +1,24 @@
 package com.veterinary.management.services;
 
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.veterinary.management.exceptions.PreconditionFailedException;
+import com.veterinary.management.exceptions.ConflictException;
 import com.veterinary.management.repositories.DoctorRepository;
+import com.veterinary.management.requests.PageParams;
 import com.veterinary.management.requests.DoctorRequest;
 import com.veterinary.management.models.Doctor;
+import com.veterinary.management.models.PurgeTask;
 
 import lombok.RequiredArgsConstructor;
 
@@ -14,24 +27,47 @@ import lombok.RequiredArgsConstructor;
 public class DoctorService {
 
     private final DoctorRepository doctorRepository;
+    private final PurgeService purgeService;
+    private final TransactionTemplate transactionTemplate;
 
     /*
-     * This method deletes a doctor by id
+     * This method marks a doctor as deleted and writes the task that purges its appointments and available dates
+     * @param Long id
+     * @return PurgeTask the task, its progress is readable at once, null if there is no doctor with the given id
      */
-    public void deleteById(Long id) {
+    @CacheEvict(cacheNames = "doctors", key = "#id", condition = "#id != null")
+    public PurgeTask deleteById(Long id) {
         if (id == null) {
-            return;
+            return null;
+        }
+        Doctor doctor = doctorRepository.findById(id).orElse(null);
+        if (doctor == null) {
+            return null;
+        }
+        PurgeTask purgeTask;
+        try {
+            purgeTask = transactionTemplate.execute(status -> {
+                doctor.setDeleted(true);
+                doctorRepository.save(doctor);
+                return purgeService.createTask(PurgeTask.DOCTOR, id);
+            });
+        } catch (OptimisticLockingFailureException e) {
+            throw new ConflictException("Doctor " + id + " was modified by another request");
         }
-        doctorRepository.deleteById(id);
+        return purgeTask;
     }
 
     /*
-     * This method returns all doctors
+     * This method returns one page of the doctors, sorted by id
+     * @param PageParams pageParams
      * @return List<Doctor>
      * 
      */
-    public List<Doctor> getAllDoctors() {
-        return doctorRepository.findAll();
+    public List<Doctor> getAllDoctors(PageParams pageParams) {
+        if (pageParams.descending()) {
+            return doctorRepository.findByIdLessThan(pageParams.start(), pageParams.toPageable());
+        }
+        return doctorRepository.findByIdGreaterThan(pageParams.start(), pageParams.toPageable());
     }
 
     /*
@@ -40,6 +76,7 @@ public class DoctorService {
      * @return Doctor
      * 
      */
+    @Cacheable(cacheNames = "doctors", key = "#id", condition = "#id != null", unless = "#result == null")
     public Doctor getDoctorById(Long id) {
         if (id == null) {
             return null;
@@ -47,6 +84,45 @@ public class DoctorService {
         return doctorRepository.findById(id).orElse(null);
     }
 
+    /*
+     * This method reads a doctor from the database and replaces its cached entry, for when the cached doctor is outdated
+     * @param Long id
+     * @return Doctor
+     */
+    @Caching(evict = @CacheEvict(cacheNames = "doctors", key = "#id", condition = "#id != null", beforeInvocation = true),
+            put = @CachePut(cacheNames = "doctors", key = "#id", condition = "#id != null", unless = "#result == null"))
+    public Doctor reloadDoctorById(Long id) {
+        if (id == null) {
+            return null;
+        }
+        return doctorRepository.findById(id).orElse(null);
+    }
+
+    /*
+     * This method returns the version of a doctor, the entity tag of its GET endpoint
+     * @param Long id
+     * @return Long the version, null if there is no doctor with the given id
+     */
+    public Long getDoctorVersion(Long id) {
+        if (id == null) {
+            return null;
+        }
+        return doctorRepository.findVersionById(id).orElse(null);
+    }
+
+    /*
+     * This method returns which of the given doctor ids exist, with a single query
+     * @param Collection<Long> ids
+     * @return Set<Long>
+     * 
+     */
+    public Set<Long> getExistingDoctorIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return new HashSet<>();
+        }
+        return new HashSet<>(doctorRepository.findIdsByIdIn(ids));
+    }
+
     /*
      * This method adds a doctor
      * @param DoctorRequest doctorRequest
@@ -67,21 +143,30 @@ public class DoctorService {
      * This method updates a doctor
      * @param Long id
      * @param DoctorRequest doctorRequest
+     * @param Long expectedVersion the version of the If-Match header, null to skip the check
      * @return Doctor
      * 
      */
-    public Doctor updateDoctor(Long id, DoctorRequest doctorRequest) {
+    @CachePut(cacheNames = "doctors", key = "#id", condition = "#id != null", unless = "#result == null")
+    public Doctor updateDoctor(Long id, DoctorRequest doctorRequest, Long expectedVersion) {
         if (id == null) {
             return null;
         }
         Doctor doctor = doctorRepository.findById(id).orElse(null);
         if (doctor != null) {
+            if (expectedVersion != null && !expectedVersion.equals(doctor.getVersion())) {
+                throw new PreconditionFailedException("Doctor " + id + " is at version " + doctor.getVersion());
+            }
             doctor.setName(doctorRequest.getName());
             doctor.setEmail(doctorRequest.getEmail());
             doctor.setPhone(doctorRequest.getPhone());
             doctor.setAddress(doctorRequest.getAddress());
             doctor.setCity(doctorRequest.getCity());
-            return doctorRepository.save(doctor);
+            try {
+                return doctorRepository.save(doctor);
+            } catch (OptimisticLockingFailureException e) {
+                throw new ConflictException("Doctor " + id + " was modified by another request");
+            }
         }
         return null;
     }
@@ -0,0 +1,154 @@
+package com.veterinary.management.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.veterinary.management.repositories.AnimalRepository;
+import com.veterinary.management.repositories.AppointmentRepository;
+import com.veterinary.management.repositories.VaccineRepository;
+import com.veterinary.management.responses.AnimalDossierResponse;
+import com.veterinary.management.responses.AnimalResponse;
+import com.veterinary.management.responses.AppointmentResponse;
+import com.veterinary.management.responses.VaccineResponse;
+
+/*
+ * This class builds the dossier of an animal: the animal with the id and name of its owner, its vaccines and its recent appointments.
+ * The three queries do not depend on each other and run in parallel on the dossier executor,
+ * so the latency of a dossier is the latency of the slowest query instead of their sum.
+ * When the timeout fires, the queries still queued or running are cancelled so they give their connections back.
+ */
+@Service
+@RequiredArgsConstructor
+public class DossierService {
+
+    private final AnimalRepository animalRepository;
+    private final VaccineRepository vaccineRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int poolSize;
+
+    @Value("${veterinary.dossier.queue-capacity:256}")
+    private int queueCapacity;
+
+    @Value("${veterinary.dossier.appointment-days:90}")
+    private int appointmentDays;
+
+    @Value("${veterinary.dossier.timeout:5s}")
+    private Duration timeout;
+
+    /*
+     * The executor is private to this service rather than a bean, a TaskExecutor bean would replace
+     * the executor Spring Boot configures for asynchronous requests.
+     * It has half as many threads as the pool has connections, so dossiers always leave connections to the other requests.
+     * When it is full the request thread runs the query itself.
+     */
+    private ThreadPoolTaskExecutor dossierExecutor;
+
+    /*
+     * Each query runs read-only with the dossier timeout as its statement timeout, so a cancelled query also stops in the database
+     */
+    private TransactionTemplate queryTemplate;
+
+    @PostConstruct
+    void startExecutor() {
+        int threads = Math.max(1, poolSize / 2);
+        dossierExecutor = new ThreadPoolTaskExecutor();
+        dossierExecutor.setCorePoolSize(threads);
+        dossierExecutor.setMaxPoolSize(threads);
+        dossierExecutor.setQueueCapacity(queueCapacity);
+        dossierExecutor.setThreadNamePrefix("dossier-");
+        dossierExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        dossierExecutor.initialize();
+
+        queryTemplate = new TransactionTemplate(transactionManager);
+        queryTemplate.setReadOnly(true);
+        queryTemplate.setTimeout((int) Math.max(1, (timeout.toMillis() + 999) / 1000));
+    }
+
+    @PreDestroy
+    void stopExecutor() {
+        dossierExecutor.shutdown();
+    }
+
+    /*
+     * This method returns the dossier of an animal
+     * @param Long id
+     * @return AnimalDossierResponse, null if there is no animal with the given id
+     * the appointments are those within appointment-days before and after now
+     */
+    public AnimalDossierResponse getDossier(Long id) {
+        if (id == null) {
+            throw new IllegalArgumentException("Id cannot be null");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        long deadline = System.nanoTime() + timeout.toNanos();
+
+        Future<List<AnimalResponse>> animal = submit(() -> animalRepository.findResponsesByIdIn(List.of(id)));
+        Future<List<VaccineResponse>> vaccines = submit(() -> vaccineRepository.findResponsesByAnimalId(id));
+        Future<List<AppointmentResponse>> appointments = submit(() -> appointmentRepository
+                .findResponsesByAnimalIdAndDateBetween(id, now.minusDays(appointmentDays), now.plusDays(appointmentDays)));
+        List<Future<?>> parts = List.of(animal, vaccines, appointments);
+
+        List<AnimalResponse> animals = await(animal, deadline, parts);
+        if (animals.isEmpty()) {
+            cancel(parts);
+            return null;
+        }
+        return new AnimalDossierResponse(animals.get(0), await(vaccines, deadline, parts), await(appointments, deadline, parts));
+    }
+
+    private <T> Future<T> submit(Supplier<T> query) {
+        return dossierExecutor.submit(() -> queryTemplate.execute(status -> query.get()));
+    }
+
+    /*
+     * This method waits for one part of the dossier until the deadline
+     * @param Future<T> part
+     * @param long deadline in System.nanoTime
+     * @param List<Future<?>> parts every part of the dossier, all of them are cancelled if this one fails or times out
+     * @return T
+     */
+    private <T> T await(Future<T> part, long deadline, List<Future<?>> parts) {
+        try {
+            return part.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            cancel(parts);
+            throw new IllegalStateException("Loading the dossier took longer than " + timeout);
+        } catch (InterruptedException e) {
+            cancel(parts);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Loading the dossier was interrupted");
+        } catch (ExecutionException e) {
+            cancel(parts);
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static void cancel(List<Future<?>> parts) {
+        for (Future<?> part : parts) {
+            part.cancel(true);
+        }
+    }
+}
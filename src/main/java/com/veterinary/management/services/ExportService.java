@@ -0,0 +1,169 @@
+package com.veterinary.management.services;
+
+import lombok.RequiredArgsConstructor;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.veterinary.management.exceptions.BadRequestException;
+
+/*
+ * This class streams whole tables as NDJSON or CSV.
+ * 
+ * Rows are read with a forward-only cursor in a read-only transaction, fetchSize rows at a time,
+ * and written to the output as they arrive, so memory stays constant whatever the size of the table.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExportService {
+
+    public static final String NDJSON = "ndjson";
+    public static final String CSV = "csv";
+
+    private static final Map<String, String> QUERIES = Map.of(
+            "customers", "SELECT id, name, email, phone, address, city FROM customers WHERE deleted = false ORDER BY id",
+            "animals", "SELECT id, name, species, breed, gender, colour, birth_date, customer_id FROM animals ORDER BY id",
+            "vaccines", "SELECT id, name, application_date, expiration_date, animal_id FROM vaccines ORDER BY id",
+            "appointments", "SELECT id, date, doctor_id, animal_id FROM appointments ORDER BY id");
+
+    private final DataSource dataSource;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    @Value("${veterinary.export.fetch-size:1000}")
+    private int fetchSize;
+
+    /*
+     * This method checks that the table and the format can be exported
+     * @param String table
+     * @param String format
+     * throws BadRequestException if the table or the format is not supported
+     */
+    public void validate(String table, String format) {
+        if (!QUERIES.containsKey(table)) {
+            throw new BadRequestException("Table " + table + " cannot be exported, use one of " + QUERIES.keySet());
+        }
+        if (!NDJSON.equals(format) && !CSV.equals(format)) {
+            throw new BadRequestException("Format must be " + NDJSON + " or " + CSV);
+        }
+    }
+
+    /*
+     * This method writes every row of the table to the output stream
+     * @param String table
+     * @param String format
+     * @param OutputStream outputStream
+     */
+    public void export(String table, String format, OutputStream outputStream) {
+        validate(table, format);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(fetchSize);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            try {
+                if (NDJSON.equals(format)) {
+                    writeNdjson(jdbcTemplate, QUERIES.get(table), outputStream);
+                } else {
+                    writeCsv(jdbcTemplate, QUERIES.get(table), outputStream);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void writeNdjson(JdbcTemplate jdbcTemplate, String sql, OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+            generator.setRootValueSeparator(null);
+            jdbcTemplate.query(sql, resultSet -> {
+                try {
+                    ResultSetMetaData metaData = resultSet.getMetaData();
+                    generator.writeStartObject();
+                    for (int column = 1; column <= metaData.getColumnCount(); column++) {
+                        generator.writeFieldName(metaData.getColumnLabel(column));
+                        Object value = valueOf(resultSet, metaData, column);
+                        if (value == null) {
+                            generator.writeNull();
+                        } else if (value instanceof Number number) {
+                            generator.writeNumber(number.toString());
+                        } else {
+                            generator.writeString(value.toString());
+                        }
+                    }
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    private void writeCsv(JdbcTemplate jdbcTemplate, String sql, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        boolean[] headerWritten = { false };
+        jdbcTemplate.query(sql, resultSet -> {
+            try {
+                ResultSetMetaData metaData = resultSet.getMetaData();
+                if (!headerWritten[0]) {
+                    for (int column = 1; column <= metaData.getColumnCount(); column++) {
+                        writer.write((column > 1 ? "," : "") + csvValue(metaData.getColumnLabel(column)));
+                    }
+                    writer.write("\n");
+                    headerWritten[0] = true;
+                }
+                for (int column = 1; column <= metaData.getColumnCount(); column++) {
+                    Object value = valueOf(resultSet, metaData, column);
+                    writer.write((column > 1 ? "," : "") + (value == null ? "" : csvValue(value.toString())));
+                }
+                writer.write("\n");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+
+    private static Object valueOf(ResultSet resultSet, ResultSetMetaData metaData, int column) throws SQLException {
+        switch (metaData.getColumnType(column)) {
+            case Types.DATE:
+                return resultSet.getObject(column, LocalDate.class);
+            case Types.TIMESTAMP:
+                return resultSet.getObject(column, LocalDateTime.class);
+            default:
+                return resultSet.getObject(column);
+        }
+    }
+
+    private static String csvValue(String value) {
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
@@ -0,0 +1,94 @@
+package com.veterinary.management.services;
+
+import lombok.RequiredArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.stereotype.Service;
+
+import com.veterinary.management.exceptions.BadRequestException;
+import com.veterinary.management.repositories.FieldSelectionRepository;
+import com.veterinary.management.requests.PageParams;
+import com.veterinary.management.responses.PageResponse;
+
+/*
+ * This class serves the fields= parameter of the read endpoints.
+ * Only the requested columns are selected, parents are joined for their id and name instead of being loaded.
+ */
+@Service
+@RequiredArgsConstructor
+public class FieldSelectionService {
+
+    private final FieldSelectionRepository fieldSelectionRepository;
+
+    /*
+     * This method returns one page of the entities with the requested fields, id is always included
+     * @param Class<?> entity
+     * @param String fields comma separated field names
+     * @param PageParams pageParams
+     * @return PageResponse<Map<String, Object>>
+     * throws BadRequestException if a field cannot be selected
+     */
+    public PageResponse<Map<String, Object>> getPage(Class<?> entity, String fields, PageParams pageParams) {
+        List<Map<String, Object>> rows = fieldSelectionRepository.findPage(entity, parse(entity, fields), pageParams);
+        return PageResponse.of(rows, pageParams, row -> (Long) row.get("id"));
+    }
+
+    /*
+     * This method returns the requested fields of an entity, id is always included
+     * @param Class<?> entity
+     * @param Long id
+     * @param String fields comma separated field names
+     * @return Map<String, Object>, null if there is no entity with the given id
+     * throws BadRequestException if a field cannot be selected
+     */
+    public Map<String, Object> getById(Class<?> entity, Long id, String fields) {
+        if (id == null) {
+            return null;
+        }
+        return fieldSelectionRepository.findById(entity, id, parse(entity, fields));
+    }
+
+    /*
+     * This method returns a hash of the normalized field list, the entity tag of a partial body carries it
+     * @param Class<?> entity
+     * @param String fields comma separated field names
+     * @return String f followed by the first 8 hex digits of the SHA-256 of the fields, id first and without duplicates
+     * throws BadRequestException if a field cannot be selected
+     */
+    public String getRepresentation(Class<?> entity, String fields) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(String.join(",", parse(entity, fields)).getBytes(StandardCharsets.UTF_8));
+            return "f" + HexFormat.of().formatHex(Arrays.copyOf(hash, 4));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private List<String> parse(Class<?> entity, String fields) {
+        Set<String> selectable = fieldSelectionRepository.getSelectableFields(entity);
+        Set<String> requested = new LinkedHashSet<>();
+        requested.add("id");
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!selectable.contains(name)) {
+                throw new BadRequestException("Unknown field " + name + ", the fields of " + entity.getSimpleName() + " are " + selectable);
+            }
+            requested.add(name);
+        }
+        return new ArrayList<>(requested);
+    }
+}
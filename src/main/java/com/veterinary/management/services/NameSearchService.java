@@ -0,0 +1,146 @@
+package com.veterinary.management.services;
+
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.veterinary.management.indexes.TrigramIndex;
+import com.veterinary.management.repositories.AnimalRepository;
+import com.veterinary.management.repositories.CustomerRepository;
+import com.veterinary.management.repositories.IdName;
+
+/*
+ * This class searches animal and customer names by substring.
+ * 
+ * On PostgreSQL with the pg_trgm and unaccent extensions installed (see migrations.sql) the search runs on
+ * trigram indexes in the database. On other databases the names are kept in in-memory trigram indexes,
+ * loaded at startup and kept in sync by AnimalService and CustomerService.
+ * Both modes ignore case and diacritics and return the best matches first.
+ */
+@Service
+@RequiredArgsConstructor
+public class NameSearchService {
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+    private static final int LOAD_PAGE_SIZE = 5000;
+
+    private final AnimalRepository animalRepository;
+    private final CustomerRepository customerRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TrigramIndex animalNames = new TrigramIndex();
+    private final TrigramIndex customerNames = new TrigramIndex();
+
+    @Value("${veterinary.search.mode:auto}")
+    private String mode;
+
+    private volatile boolean databaseSearch;
+
+    /*
+     * This method picks the search mode and loads the in-memory indexes when the database cannot search
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndexes() {
+        databaseSearch = "postgres".equalsIgnoreCase(mode) || ("auto".equalsIgnoreCase(mode) && isTrigramSearchInstalled());
+        if (databaseSearch) {
+            return;
+        }
+        for (List<IdName> page = animalRepository.findIdNamesByIdGreaterThan(0L, firstPage()); !page.isEmpty();
+                page = animalRepository.findIdNamesByIdGreaterThan(page.get(page.size() - 1).getId(), firstPage())) {
+            page.forEach(idName -> animalNames.put(idName.getId(), idName.getName()));
+        }
+        for (List<IdName> page = customerRepository.findIdNamesByIdGreaterThan(0L, firstPage()); !page.isEmpty();
+                page = customerRepository.findIdNamesByIdGreaterThan(page.get(page.size() - 1).getId(), firstPage())) {
+            page.forEach(idName -> customerNames.put(idName.getId(), idName.getName()));
+        }
+    }
+
+    /*
+     * This method returns the ids of the animals whose name contains the query, best matches first
+     * @param String name
+     * @param Integer limit
+     * @return List<Long>
+     */
+    public List<Long> searchAnimals(String name, Integer limit) {
+        if (databaseSearch) {
+            return animalRepository.searchIdsByName(likePattern(name), name, limitOf(limit));
+        }
+        return animalNames.search(name, limitOf(limit));
+    }
+
+    /*
+     * This method returns the ids of the customers whose name contains the query, best matches first
+     * @param String name
+     * @param Integer limit
+     * @return List<Long>
+     */
+    public List<Long> searchCustomers(String name, Integer limit) {
+        if (databaseSearch) {
+            return customerRepository.searchIdsByName(likePattern(name), name, limitOf(limit));
+        }
+        return customerNames.search(name, limitOf(limit));
+    }
+
+    /*
+     * These methods keep the in-memory indexes in sync with the writes of this node
+     */
+    public void indexAnimal(Long id, String name) {
+        if (!databaseSearch && id != null) {
+            animalNames.put(id, name);
+        }
+    }
+
+    public void removeAnimal(Long id) {
+        if (!databaseSearch && id != null) {
+            animalNames.remove(id);
+        }
+    }
+
+    public void indexCustomer(Long id, String name) {
+        if (!databaseSearch && id != null) {
+            customerNames.put(id, name);
+        }
+    }
+
+    public void removeCustomer(Long id) {
+        if (!databaseSearch && id != null) {
+            customerNames.remove(id);
+        }
+    }
+
+    private boolean isTrigramSearchInstalled() {
+        try {
+            Long extensions = jdbcTemplate.queryForObject("SELECT count(*) FROM pg_extension WHERE extname IN ('pg_trgm', 'unaccent')", Long.class);
+            Long functions = jdbcTemplate.queryForObject("SELECT count(*) FROM pg_proc WHERE proname = 'f_unaccent'", Long.class);
+            return extensions != null && extensions == 2 && functions != null && functions > 0;
+        } catch (DataAccessException e) {
+            return false;
+        }
+    }
+
+    private static int limitOf(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+
+    private static String likePattern(String name) {
+        String escaped = (name == null ? "" : name).replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
+    private static Pageable firstPage() {
+        return PageRequest.of(0, LOAD_PAGE_SIZE, Sort.by("id"));
+    }
+}
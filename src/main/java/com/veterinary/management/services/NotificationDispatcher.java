@@ -0,0 +1,158 @@
+package com.veterinary.management.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.veterinary.management.models.OutboxMessage;
+import com.veterinary.management.notifications.Notification;
+import com.veterinary.management.notifications.NotificationSender;
+import com.veterinary.management.repositories.OutboxMessageRepository;
+
+/*
+ * This class sends the notifications of the outbox.
+ * 
+ * Every poll claims due messages a batch at a time and sends them with at most concurrency sends in flight.
+ * Claiming skips rows locked by other dispatchers, so several instances of the application can drain the outbox together.
+ * A failed message is retried after a backoff that doubles with every attempt, up to max-backoff,
+ * and is marked FAILED after max-attempts. Delivery is at least once: a message whose outcome could not be recorded
+ * is claimed again after the lease.
+ */
+@Service
+@RequiredArgsConstructor
+public class NotificationDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationDispatcher.class);
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OutboxMessageRepository outboxMessageRepository;
+    private final NotificationSender notificationSender;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${veterinary.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${veterinary.outbox.concurrency:8}")
+    private int concurrency;
+
+    @Value("${veterinary.outbox.lease:5m}")
+    private Duration lease;
+
+    @Value("${veterinary.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${veterinary.outbox.initial-backoff:30s}")
+    private Duration initialBackoff;
+
+    @Value("${veterinary.outbox.max-backoff:6h}")
+    private Duration maxBackoff;
+
+    @Value("${veterinary.outbox.retention-days:7}")
+    private int retentionDays;
+
+    private ExecutorService senders;
+
+    @PostConstruct
+    void startSenders() {
+        senders = Executors.newFixedThreadPool(Math.max(1, concurrency));
+    }
+
+    @PreDestroy
+    void stopSenders() {
+        senders.shutdown();
+    }
+
+    /*
+     * This method drains the due messages, a poll is skipped if the previous one is still going
+     */
+    @Scheduled(fixedDelayString = "${veterinary.outbox.poll-delay:5s}")
+    public void poll() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int claimed;
+            do {
+                claimed = dispatchBatch();
+            } while (claimed == batchSize);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /*
+     * This method claims one batch of due messages, sends them and records the outcomes
+     * @return int the number of claimed messages
+     */
+    int dispatchBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxMessage> messages = outboxMessageRepository.claimDue(now, now.plus(lease), batchSize);
+        if (messages.isEmpty()) {
+            return 0;
+        }
+
+        List<CompletableFuture<Void>> sends = new ArrayList<>(messages.size());
+        for (OutboxMessage message : messages) {
+            sends.add(CompletableFuture.runAsync(() -> send(message), senders));
+        }
+        CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).join();
+
+        outboxMessageRepository.updateOutcomes(messages);
+        return messages.size();
+    }
+
+    /*
+     * This method sends one message and sets its outcome on it
+     */
+    private void send(OutboxMessage message) {
+        try {
+            notificationSender.send(new Notification(message.getId(), message.getType(), message.getRecipient(), message.getPayload()));
+            message.setStatus(OutboxMessage.SENT);
+            message.setSentAt(LocalDateTime.now());
+            message.setLastError(null);
+        } catch (Exception e) {
+            String error = String.valueOf(e.getMessage());
+            message.setLastError(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+            if (message.getAttempts() >= maxAttempts) {
+                message.setStatus(OutboxMessage.FAILED);
+                log.warn("Notification {} failed after {} attempts: {}", message.getId(), message.getAttempts(), error);
+            } else {
+                message.setAvailableAt(LocalDateTime.now().plus(backoff(message.getAttempts())));
+            }
+        }
+    }
+
+    /*
+     * This method returns the delay before the next attempt, initial-backoff doubled for every attempt after the first
+     */
+    private Duration backoff(int attempts) {
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+
+    /*
+     * This method deletes the sent and cancelled messages older than retention-days, a chunk at a time
+     */
+    @Scheduled(cron = "${veterinary.outbox.cleanup-cron:0 30 3 * * *}")
+    public void cleanup() {
+        LocalDateTime createdBefore = LocalDateTime.now().minusDays(retentionDays);
+        while (outboxMessageRepository.deleteFinishedBefore(createdBefore, batchSize * 10) > 0) {
+            // next chunk
+        }
+    }
+}
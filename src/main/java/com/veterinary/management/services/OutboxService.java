@@ -0,0 +1,138 @@
+package com.veterinary.management.services;
+
+import lombok.RequiredArgsConstructor;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.veterinary.management.models.Appointment;
+import com.veterinary.management.models.OutboxMessage;
+import com.veterinary.management.models.Vaccine;
+import com.veterinary.management.repositories.OutboxMessageRepository;
+
+/*
+ * This class writes the notifications of appointments and vaccines to the outbox.
+ * Every method must run in the transaction of the change it announces, the notification dispatcher sends them after the commit.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    static final String APPOINTMENT = "appointment";
+    static final String VACCINE = "vaccine";
+
+    private final OutboxMessageRepository outboxMessageRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${veterinary.notifications.reminder-lead:24h}")
+    private Duration reminderLead;
+
+    /*
+     * This method writes the confirmations of new appointments and their reminders, due reminder-lead before the appointment
+     * @param List<Appointment> appointments saved appointments, only the ids of their doctor and animal are read
+     */
+    public void appointmentsBooked(List<Appointment> appointments) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxMessage> messages = new ArrayList<>();
+        for (Appointment appointment : appointments) {
+            addAppointmentMessages(messages, appointment, now);
+        }
+        outboxMessageRepository.enqueueAll(messages);
+    }
+
+    /*
+     * This method replaces the pending reminder of a changed appointment and writes a new confirmation
+     * @param Appointment appointment
+     */
+    public void appointmentChanged(Appointment appointment) {
+        outboxMessageRepository.cancelPending(APPOINTMENT, appointment.getId(), OutboxMessage.APPOINTMENT_REMINDER);
+        List<OutboxMessage> messages = new ArrayList<>();
+        addAppointmentMessages(messages, appointment, LocalDateTime.now());
+        outboxMessageRepository.enqueueAll(messages);
+    }
+
+    /*
+     * This method cancels the pending reminder of a deleted appointment and writes its cancellation if it was still ahead.
+     * @param Appointment appointment
+     */
+    public void appointmentCancelled(Appointment appointment) {
+        appointmentsCancelled(List.of(appointment));
+    }
+
+    /*
+     * This method cancels the pending reminders of deleted appointments and writes the cancellations of the ones still ahead
+     * @param List<Appointment> appointments only the ids of their doctor and animal are read
+     */
+    public void appointmentsCancelled(List<Appointment> appointments) {
+        List<Long> ids = new ArrayList<>(appointments.size());
+        List<OutboxMessage> messages = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (Appointment appointment : appointments) {
+            ids.add(appointment.getId());
+            if (appointment.getDate().isAfter(now)) {
+                messages.add(message(OutboxMessage.APPOINTMENT_CANCELLATION, APPOINTMENT, appointment.getId(),
+                        appointment.getAnimal().getId(), appointmentPayload(appointment), now, now));
+            }
+        }
+        outboxMessageRepository.cancelPendingAll(APPOINTMENT, ids, OutboxMessage.APPOINTMENT_REMINDER);
+        outboxMessageRepository.enqueueAll(messages);
+    }
+
+    /*
+     * This method writes the confirmation of a recorded vaccine
+     * @param Vaccine vaccine
+     */
+    public void vaccineRecorded(Vaccine vaccine) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("vaccineId", vaccine.getId());
+        payload.put("animalId", vaccine.getAnimal().getId());
+        payload.put("name", vaccine.getName());
+        payload.put("applicationDate", vaccine.getApplicationDate());
+        payload.put("expirationDate", vaccine.getExpirationDate());
+        LocalDateTime now = LocalDateTime.now();
+        outboxMessageRepository.enqueueAll(List.of(
+                message(OutboxMessage.VACCINE_CONFIRMATION, VACCINE, vaccine.getId(), vaccine.getAnimal().getId(), toJson(payload), now, now)));
+    }
+
+    private void addAppointmentMessages(List<OutboxMessage> messages, Appointment appointment, LocalDateTime now) {
+        String payload = appointmentPayload(appointment);
+        Long animalId = appointment.getAnimal().getId();
+        messages.add(message(OutboxMessage.APPOINTMENT_CONFIRMATION, APPOINTMENT, appointment.getId(), animalId, payload, now, now));
+        LocalDateTime reminderAt = appointment.getDate().minus(reminderLead);
+        if (reminderAt.isAfter(now)) {
+            messages.add(message(OutboxMessage.APPOINTMENT_REMINDER, APPOINTMENT, appointment.getId(), animalId, payload, reminderAt, now));
+        }
+    }
+
+    private String appointmentPayload(Appointment appointment) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("appointmentId", appointment.getId());
+        payload.put("date", appointment.getDate());
+        payload.put("doctorId", appointment.getDoctor().getId());
+        payload.put("animalId", appointment.getAnimal().getId());
+        return toJson(payload);
+    }
+
+    private static OutboxMessage message(String type, String aggregateType, Long aggregateId, Long animalId, String payload,
+            LocalDateTime availableAt, LocalDateTime now) {
+        return new OutboxMessage(null, type, aggregateType, aggregateId, animalId, null, payload, OutboxMessage.PENDING, 0,
+                availableAt, now, null, null);
+    }
+
+    private String toJson(Map<String, Object> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.veterinary.management.services;
+
+import lombok.RequiredArgsConstructor;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.veterinary.management.indexes.VaccineExpiryCache;
+import com.veterinary.management.models.Animal;
+import com.veterinary.management.models.Appointment;
+import com.veterinary.management.models.PurgeTask;
+import com.veterinary.management.repositories.CoverageRollupRepository;
+import com.veterinary.management.repositories.PurgeRepository;
+import com.veterinary.management.repositories.PurgeTaskRepository;
+import com.veterinary.management.repositories.VaccinationDelta;
+
+/*
+ * This class purges deleted customers and doctors in the background.
+ * 
+ * Deleting a customer or a doctor only marks it as deleted and writes a purge task, in one short transaction.
+ * The purge job then deletes the dependent rows chunk-size at a time, each chunk in its own transaction together with
+ * its rollup, index and notification updates and the progress of the task, and deletes the record itself last.
+ * A purge that stops halfway is taken over after the lease, a failed chunk is retried up to max-attempts.
+ */
+@Service
+@RequiredArgsConstructor
+public class PurgeService {
+
+    private static final Logger log = LoggerFactory.getLogger(PurgeService.class);
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final PurgeTaskRepository purgeTaskRepository;
+    private final PurgeRepository purgeRepository;
+    private final CoverageRollupRepository coverageRollupRepository;
+    private final OutboxService outboxService;
+    private final NameSearchService nameSearchService;
+    private final VaccineExpiryCache vaccineExpiryCache;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${veterinary.purge.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${veterinary.purge.lease:5m}")
+    private Duration lease;
+
+    @Value("${veterinary.purge.max-attempts:5}")
+    private int maxAttempts;
+
+    /*
+     * This method writes the purge task of a record that was just marked as deleted, it must run in the same transaction
+     * @param String entityType PurgeTask.CUSTOMER or PurgeTask.DOCTOR
+     * @param Long entityId
+     * @return PurgeTask
+     */
+    public PurgeTask createTask(String entityType, Long entityId) {
+        LocalDateTime now = LocalDateTime.now();
+        return purgeTaskRepository.save(new PurgeTask(null, entityType, entityId, PurgeTask.PENDING, null, 0, 0, null, now, now, null));
+    }
+
+    /*
+     * This method returns a purge task with its progress
+     * @param Long id
+     * @return PurgeTask null if there is no task with the given id
+     */
+    public PurgeTask getTask(Long id) {
+        if (id == null) {
+            return null;
+        }
+        return purgeTaskRepository.findById(id).orElse(null);
+    }
+
+    /*
+     * This method runs the pending purges, a poll is skipped if the previous one is still going
+     */
+    @Scheduled(fixedDelayString = "${veterinary.purge.poll-delay:2s}")
+    public void poll() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            List<Long> ids;
+            while (!(ids = purgeTaskRepository.findRunnableIds(LocalDateTime.now().minus(lease), PageRequest.of(0, 10))).isEmpty()) {
+                for (Long id : ids) {
+                    run(id);
+                }
+            }
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void run(Long id) {
+        LocalDateTime now = LocalDateTime.now();
+        Integer claimed = transactionTemplate.execute(status -> purgeTaskRepository.claim(id, now, now.minus(lease)));
+        if (claimed == null || claimed == 0) {
+            return;
+        }
+        PurgeTask task = purgeTaskRepository.findById(id).orElseThrow();
+        try {
+            if (PurgeTask.CUSTOMER.equals(task.getEntityType())) {
+                purgeCustomer(task);
+            } else if (PurgeTask.DOCTOR.equals(task.getEntityType())) {
+                purgeDoctor(task);
+            } else {
+                throw new IllegalStateException("Unknown entity type " + task.getEntityType());
+            }
+            task = purgeTaskRepository.findById(id).orElseThrow();
+            task.setStatus(PurgeTask.DONE);
+            task.setStep(null);
+            task.setFinishedAt(LocalDateTime.now());
+            task.setUpdatedAt(task.getFinishedAt());
+            purgeTaskRepository.save(task);
+        } catch (RuntimeException e) {
+            log.warn("Purge task {} of {} {} failed", id, task.getEntityType(), task.getEntityId(), e);
+            task = purgeTaskRepository.findById(id).orElseThrow();
+            String error = String.valueOf(e.getMessage());
+            task.setLastError(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+            task.setAttempts(task.getAttempts() + 1);
+            task.setStatus(task.getAttempts() >= maxAttempts ? PurgeTask.FAILED : PurgeTask.PENDING);
+            task.setUpdatedAt(LocalDateTime.now());
+            purgeTaskRepository.save(task);
+        }
+    }
+
+    /*
+     * This method deletes the vaccines, reminders and appointments of the animals of a customer, then its animals and the customer.
+     * Rows added to the animals meanwhile are picked up by another round.
+     */
+    private void purgeCustomer(PurgeTask task) {
+        Long customerId = task.getEntityId();
+        do {
+            purgeRepository.cancelCustomerNotifications(customerId);
+            Set<Long> vaccinatedAnimalIds = new HashSet<>();
+            runChunks(task, "vaccines", () -> {
+                List<VaccinationDelta> deltas = purgeRepository.deleteCustomerVaccines(customerId, chunkSize);
+                coverageRollupRepository.addVaccinations(deltas);
+                deltas.forEach(delta -> vaccinatedAnimalIds.add(delta.animalId()));
+                return deltas.size();
+            });
+            vaccinatedAnimalIds.forEach(vaccineExpiryCache::evict);
+            runChunks(task, "vaccine reminders", () -> purgeRepository.deleteCustomerVaccineReminders(customerId, chunkSize));
+            runChunks(task, "appointments", () -> purgeRepository.deleteCustomerAppointments(customerId, chunkSize));
+            Set<Long> animalIds = new HashSet<>();
+            runChunks(task, "animals", () -> {
+                List<Animal> animals = purgeRepository.deleteCustomerAnimals(customerId, chunkSize);
+                coverageRollupRepository.addAnimals(animals, -1);
+                animals.forEach(animal -> animalIds.add(animal.getId()));
+                return animals.size();
+            });
+            animalIds.forEach(nameSearchService::removeAnimal);
+        } while (purgeRepository.hasAnimals(customerId));
+        runChunks(task, "customer", () -> purgeRepository.deleteCustomer(customerId));
+    }
+
+    /*
+     * This method deletes the appointments and available dates of a doctor, then the doctor.
+     * The owners of the appointments still ahead are notified of the cancellation.
+     */
+    private void purgeDoctor(PurgeTask task) {
+        Long doctorId = task.getEntityId();
+        runChunks(task, "appointments", () -> {
+            List<Appointment> appointments = purgeRepository.deleteDoctorAppointments(doctorId, chunkSize);
+            outboxService.appointmentsCancelled(appointments);
+            return appointments.size();
+        });
+        runChunks(task, "available dates", () -> purgeRepository.deleteDoctorDates(doctorId, chunkSize));
+        runChunks(task, "doctor", () -> purgeRepository.deleteDoctor(doctorId));
+    }
+
+    /*
+     * This method runs the chunk in its own transaction with the progress of the task until it deletes fewer than chunk-size rows
+     * @param IntSupplier chunk deletes one chunk and returns the number of deleted rows
+     */
+    private void runChunks(PurgeTask task, String step, IntSupplier chunk) {
+        int deleted;
+        do {
+            deleted = transactionTemplate.execute(status -> {
+                int rows = chunk.getAsInt();
+                purgeTaskRepository.addProgress(task.getId(), step, rows, LocalDateTime.now());
+                return rows;
+            });
+        } while (deleted >= chunkSize);
+    }
+}
@@ -0,0 +1,104 @@
+package com.veterinary.management.services;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.veterinary.management.indexes.OccupancyMap;
+import com.veterinary.management.repositories.AppointmentRepository;
+import com.veterinary.management.repositories.AppointmentSlot;
+import com.veterinary.management.repositories.AvailableDateRepository;
+import com.veterinary.management.repositories.DoctorDay;
+import com.veterinary.management.responses.SlotResponse;
+
+@Service
+@RequiredArgsConstructor
+public class SlotService {
+
+    private final AvailableDateRepository availableDateRepository;
+    private final AppointmentRepository appointmentRepository;
+
+    @Value("${veterinary.slots.day-start:09:00}")
+    private String dayStart;
+
+    @Value("${veterinary.slots.day-end:17:00}")
+    private String dayEnd;
+
+    @Value("${veterinary.slots.length-minutes:60}")
+    private int slotLengthMinutes;
+
+    @Value("${veterinary.slots.window-days:7}")
+    private int windowDays;
+
+    @Value("${veterinary.slots.horizon-days:90}")
+    private int horizonDays;
+
+    /*
+     * This method rejects a window that would never move the scan forward
+     */
+    @PostConstruct
+    void checkSettings() {
+        if (windowDays <= 0) {
+            throw new IllegalStateException("veterinary.slots.window-days must be positive, it is " + windowDays);
+        }
+    }
+
+    /*
+     * This method returns the earliest free slot of any doctor at or after the given time.
+     * 
+     * The dates are scanned in windows, every window loads the available days and the appointments
+     * of all doctors with one projection query each and searches them in an OccupancyMap.
+     * 
+     * @param LocalDateTime after the time to search from, now if null
+     * @param String city the city of the doctor, any city if null
+     * @return SlotResponse the earliest free slot, or null if there is none within the horizon
+     */
+    public SlotResponse findEarliestSlot(LocalDateTime after, String city) {
+        if (after == null) {
+            after = LocalDateTime.now();
+        }
+        Duration slotLength = Duration.ofMinutes(slotLengthMinutes);
+        LocalDate lastDate = after.toLocalDate().plusDays(horizonDays);
+
+        for (LocalDate startDate = after.toLocalDate(); !startDate.isAfter(lastDate); startDate = startDate.plusDays(windowDays)) {
+            LocalDate endDate = startDate.plusDays(windowDays - 1L);
+            if (endDate.isAfter(lastDate)) {
+                endDate = lastDate;
+            }
+
+            List<DoctorDay> doctorDays = city == null
+                    ? availableDateRepository.findDoctorDaysByDateBetween(startDate, endDate)
+                    : availableDateRepository.findDoctorDaysByDateBetweenAndCity(startDate, endDate, city);
+            if (doctorDays.isEmpty()) {
+                continue;
+            }
+
+            OccupancyMap occupancyMap = new OccupancyMap(LocalTime.parse(dayStart), LocalTime.parse(dayEnd), slotLength);
+            doctorDays.forEach(occupancyMap::addAvailability);
+
+            //Appointments that start just before the window can still overlap its first slot
+            LocalDateTime from = startDate.atStartOfDay().minus(slotLength);
+            LocalDateTime to = endDate.plusDays(1).atStartOfDay();
+            List<AppointmentSlot> appointmentSlots = city == null
+                    ? appointmentRepository.findSlotsByDateRange(from, to)
+                    : appointmentRepository.findSlotsByDateRangeAndCity(from, to, city);
+            for (AppointmentSlot appointmentSlot : appointmentSlots) {
+                occupancyMap.addAppointment(appointmentSlot.getDoctorId(), appointmentSlot.getDate());
+            }
+
+            SlotResponse slot = occupancyMap.findEarliestFreeSlot(after);
+            if (slot != null) {
+                return slot;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,292 @@
+package com.veterinary.management.services;
+
+import lombok.RequiredArgsConstructor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.veterinary.management.exceptions.BadRequestException;
+import com.veterinary.management.indexes.VaccineExpiryCache;
+import com.veterinary.management.models.Animal;
+import com.veterinary.management.models.Vaccine;
+import com.veterinary.management.repositories.AnimalNameExpiry;
+import com.veterinary.management.repositories.CoverageRollupRepository;
+import com.veterinary.management.repositories.VaccinationDelta;
+import com.veterinary.management.repositories.VaccineRepository;
+import com.veterinary.management.requests.VaccineRequest;
+import com.veterinary.management.responses.ImportRowError;
+import com.veterinary.management.responses.VaccineImportResult;
+
+/*
+ * This class imports vaccine records from CSV or NDJSON files.
+ *
+ * The file is read as a stream, chunk-size rows at a time. For each chunk:
+ * - the rows are parsed and validated in parallel,
+ * - the animals of the chunk are resolved with one query,
+ * - the rule of addVaccine, no unexpired vaccine with the same name, is checked against the latest expiry
+ *   of every animal and name, read with one grouped query and raised by the accepted rows of the file,
+ * - the accepted rows are inserted with JDBC batches in one transaction, which also adds them to the coverage rollups.
+ * Rejected rows do not stop the import, they are reported with their line number.
+ */
+@Service
+@RequiredArgsConstructor
+public class VaccineImportService {
+
+    public static final String NDJSON = "ndjson";
+    public static final String CSV = "csv";
+
+    private final VaccineRepository vaccineRepository;
+    private final AnimalService animalService;
+    private final VaccineExpiryCache vaccineExpiryCache;
+    private final CoverageRollupRepository coverageRollupRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${veterinary.import.chunk-size:1000}")
+    private int chunkSize;
+
+    /*
+     * This method imports the vaccines of the file
+     * @param InputStream inputStream the file, one record per line, CSV files start with a header line
+     * @param String format csv or ndjson
+     * @return VaccineImportResult the number of rows, imported and rejected rows and the error of every rejected row
+     * throws BadRequestException if the format is not supported
+     */
+    public VaccineImportResult importVaccines(InputStream inputStream, String format) {
+        if (!NDJSON.equals(format) && !CSV.equals(format)) {
+            throw new BadRequestException("Format must be " + NDJSON + " or " + CSV);
+        }
+        VaccineImportResult result = new VaccineImportResult(0, 0, 0, new ArrayList<>());
+        Map<String, LocalDate> latestExpiries = new HashMap<>();
+        Set<Long> loadedAnimalIds = new HashSet<>();
+        List<String> header = null;
+        List<RawRow> chunk = new ArrayList<>(chunkSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            int lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (CSV.equals(format) && header == null) {
+                    header = normalize(splitCsv(line));
+                    continue;
+                }
+                chunk.add(new RawRow(lineNumber, line));
+                if (chunk.size() >= chunkSize) {
+                    importChunk(chunk, format, header, latestExpiries, loadedAnimalIds, result);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, format, header, latestExpiries, loadedAnimalIds, result);
+        }
+        return result;
+    }
+
+    private void importChunk(List<RawRow> chunk, String format, List<String> header, Map<String, LocalDate> latestExpiries,
+            Set<Long> loadedAnimalIds, VaccineImportResult result) {
+        List<ParsedRow> rows = chunk.parallelStream().map(raw -> parse(raw, format, header)).toList();
+
+        Set<Long> animalIds = new HashSet<>();
+        for (ParsedRow row : rows) {
+            if (row.error() == null) {
+                animalIds.add(row.request().getAnimalId());
+            }
+        }
+        Set<Long> existingAnimalIds = animalService.getExistingAnimalIds(animalIds);
+        Set<Long> unloadedAnimalIds = new HashSet<>(existingAnimalIds);
+        unloadedAnimalIds.removeAll(loadedAnimalIds);
+        if (!unloadedAnimalIds.isEmpty()) {
+            for (AnimalNameExpiry expiry : vaccineRepository.findLatestExpiriesByAnimalIdIn(unloadedAnimalIds)) {
+                latestExpiries.merge(key(expiry.getAnimalId(), expiry.getName()), expiry.getExpirationDate(), VaccineImportService::later);
+            }
+            loadedAnimalIds.addAll(unloadedAnimalIds);
+        }
+
+        List<Vaccine> accepted = new ArrayList<>();
+        for (ParsedRow row : rows) {
+            result.setRows(result.getRows() + 1);
+            String error = row.error();
+            VaccineRequest request = row.request();
+            if (error == null && !existingAnimalIds.contains(request.getAnimalId())) {
+                error = "Animal with id " + request.getAnimalId() + " not found";
+            }
+            if (error == null) {
+                LocalDate latestExpiry = latestExpiries.get(key(request.getAnimalId(), request.getName()));
+                if (latestExpiry != null && latestExpiry.isAfter(request.getApplicationDate())) {
+                    error = "The animal is already vaccinated with the same vaccine and the expiration date is not passed";
+                }
+            }
+            if (error != null) {
+                result.setRejected(result.getRejected() + 1);
+                result.getErrors().add(new ImportRowError(row.line(), error));
+                continue;
+            }
+            latestExpiries.merge(key(request.getAnimalId(), request.getName()), request.getExpirationDate(), VaccineImportService::later);
+            accepted.add(toVaccine(request));
+        }
+
+        if (!accepted.isEmpty()) {
+            List<VaccinationDelta> deltas = accepted.stream()
+                    .map(vaccine -> new VaccinationDelta(vaccine.getAnimal().getId(), vaccine.getName(), vaccine.getApplicationDate(), 1))
+                    .toList();
+            transactionTemplate.executeWithoutResult(status -> {
+                vaccineRepository.insertAll(accepted);
+                coverageRollupRepository.addVaccinations(deltas);
+            });
+            result.setImported(result.getImported() + accepted.size());
+            for (Vaccine vaccine : accepted) {
+                vaccineExpiryCache.add(vaccine.getAnimal().getId(), vaccine.getName(), vaccine.getExpirationDate());
+            }
+        }
+    }
+
+    private ParsedRow parse(RawRow raw, String format, List<String> header) {
+        Map<String, String> values;
+        if (CSV.equals(format)) {
+            List<String> cells = splitCsv(raw.text());
+            if (cells.size() != header.size()) {
+                return new ParsedRow(raw.number(), null, "Expected " + header.size() + " columns, found " + cells.size());
+            }
+            values = new HashMap<>();
+            for (int column = 0; column < header.size(); column++) {
+                values.put(header.get(column), cells.get(column));
+            }
+        } else {
+            try {
+                JsonNode node = objectMapper.readTree(raw.text());
+                if (!node.isObject()) {
+                    return new ParsedRow(raw.number(), null, "Expected a JSON object");
+                }
+                values = new HashMap<>();
+                for (Iterator<Map.Entry<String, JsonNode>> fields = node.fields(); fields.hasNext();) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    values.put(normalize(field.getKey()), field.getValue().isNull() ? null : field.getValue().asText());
+                }
+            } catch (JsonProcessingException e) {
+                return new ParsedRow(raw.number(), null, "Invalid JSON: " + e.getOriginalMessage());
+            }
+        }
+
+        VaccineRequest request = new VaccineRequest();
+        try {
+            request.setName(blankToNull(values.get("name")));
+            request.setApplicationDate(toDate(values.get("applicationdate")));
+            request.setExpirationDate(toDate(values.get("expirationdate")));
+            String animalId = blankToNull(values.get("animalid"));
+            request.setAnimalId(animalId == null ? null : Long.valueOf(animalId.trim()));
+        } catch (DateTimeParseException e) {
+            return new ParsedRow(raw.number(), null, "Invalid date " + e.getParsedString() + ", expected yyyy-MM-dd");
+        } catch (NumberFormatException e) {
+            return new ParsedRow(raw.number(), null, "Invalid animal id");
+        }
+        if (request.getName() == null || request.getApplicationDate() == null
+                || request.getExpirationDate() == null || request.getAnimalId() == null) {
+            return new ParsedRow(raw.number(), null, "name, applicationDate, expirationDate and animalId are required");
+        }
+        return new ParsedRow(raw.number(), request, null);
+    }
+
+    private static Vaccine toVaccine(VaccineRequest request) {
+        Animal animal = new Animal();
+        animal.setId(request.getAnimalId());
+        Vaccine vaccine = new Vaccine();
+        vaccine.setName(request.getName());
+        vaccine.setApplicationDate(request.getApplicationDate());
+        vaccine.setExpirationDate(request.getExpirationDate());
+        vaccine.setAnimal(animal);
+        return vaccine;
+    }
+
+    /*
+     * This method splits a CSV line, quoted cells may contain commas and doubled quotes
+     */
+    static List<String> splitCsv(String line) {
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    cell.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    cell.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+            } else {
+                cell.append(c);
+            }
+        }
+        cells.add(cell.toString());
+        return cells;
+    }
+
+    /*
+     * Column names are matched without case and underscores, so both applicationDate and application_date are accepted
+     */
+    private static List<String> normalize(List<String> names) {
+        return names.stream().map(VaccineImportService::normalize).toList();
+    }
+
+    private static String normalize(String name) {
+        return name.trim().replace("_", "").toLowerCase(Locale.ROOT);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private static LocalDate toDate(String value) {
+        String date = blankToNull(value);
+        return date == null ? null : LocalDate.parse(date);
+    }
+
+    private static String key(Long animalId, String name) {
+        return animalId + ":" + name;
+    }
+
+    private static LocalDate later(LocalDate first, LocalDate second) {
+        return second.isAfter(first) ? second : first;
+    }
+
+    private record RawRow(int number, String text) {
+    }
+
+    private record ParsedRow(int line, VaccineRequest request, String error) {
+    }
+}
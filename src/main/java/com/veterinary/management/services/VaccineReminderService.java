@@ -0,0 +1,163 @@
+package com.veterinary.management.services;
+
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.veterinary.management.exceptions.ConflictException;
+import com.veterinary.management.models.JobCheckpoint;
+import com.veterinary.management.models.VaccineReminder;
+import com.veterinary.management.repositories.ExpiringVaccine;
+import com.veterinary.management.repositories.JobCheckpointRepository;
+import com.veterinary.management.repositories.VaccineReminderRepository;
+import com.veterinary.management.repositories.VaccineRepository;
+import com.veterinary.management.responses.ReminderScanResult;
+
+/*
+ * This class writes reminders for the vaccines that expire within the upcoming window.
+ * 
+ * Every expiration day of the window is a partition, scanned in id order through the (expiration_date, id) index
+ * a chunk at a time, so no query touches more than chunk-size rows and the API keeps running during a scan.
+ * Each chunk inserts its reminders and moves the checkpoint of the partition in one transaction,
+ * a scan that stops halfway continues from the checkpoints when it runs again on the same day.
+ * Partitions run in parallel on a pool that lives only as long as the scan.
+ */
+@Service
+@RequiredArgsConstructor
+public class VaccineReminderService {
+
+    static final String JOB = "vaccine-reminders";
+
+    private final VaccineRepository vaccineRepository;
+    private final VaccineReminderRepository vaccineReminderRepository;
+    private final JobCheckpointRepository jobCheckpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${veterinary.reminders.window-days:30}")
+    private int windowDays;
+
+    @Value("${veterinary.reminders.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${veterinary.reminders.parallelism:4}")
+    private int parallelism;
+
+    /*
+     * This method runs the scan on the schedule of veterinary.reminders.cron, a run is skipped if the previous one is still going
+     */
+    @Scheduled(cron = "${veterinary.reminders.cron:0 0 2 * * *}")
+    public void scheduledScan() {
+        if (!running.get()) {
+            try {
+                scan();
+            } catch (ConflictException e) {
+                // started by hand meanwhile
+            }
+        }
+    }
+
+    /*
+     * This method writes the reminders of the vaccines expiring from today to window-days later
+     * @return ReminderScanResult
+     * throws ConflictException if a scan is already running
+     */
+    public ReminderScanResult scan() {
+        if (!running.compareAndSet(false, true)) {
+            throw new ConflictException("A reminder scan is already running");
+        }
+        try {
+            return scan(LocalDate.now());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private ReminderScanResult scan(LocalDate runDate) {
+        transactionTemplate.executeWithoutResult(status -> jobCheckpointRepository.deleteByJobAndRunDateBefore(JOB, runDate));
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, parallelism));
+        try {
+            List<Future<int[]>> partitions = new ArrayList<>();
+            for (int day = 0; day <= windowDays; day++) {
+                LocalDate expirationDate = runDate.plusDays(day);
+                partitions.add(executor.submit(() -> scanPartition(runDate, expirationDate)));
+            }
+            int scanned = 0;
+            int created = 0;
+            for (Future<int[]> partition : partitions) {
+                int[] counts = partition.get();
+                scanned += counts[0];
+                created += counts[1];
+            }
+            return new ReminderScanResult(partitions.size(), scanned, created);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The reminder scan was interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /*
+     * This method scans the vaccines expiring on one day, starting after the checkpoint of the partition
+     * @return int[] the number of vaccines scanned and of reminders created
+     */
+    private int[] scanPartition(LocalDate runDate, LocalDate expirationDate) {
+        String partitionKey = expirationDate.toString();
+        JobCheckpoint checkpoint = jobCheckpointRepository.findByJobAndRunDateAndPartitionKey(JOB, runDate, partitionKey)
+                .orElseGet(() -> new JobCheckpoint(null, JOB, runDate, partitionKey, 0L, false, LocalDateTime.now()));
+        int scanned = 0;
+        int created = 0;
+        while (!checkpoint.isCompleted()) {
+            List<ExpiringVaccine> chunk = vaccineRepository.findExpiringByExpirationDateAndIdGreaterThan(
+                    expirationDate, checkpoint.getLastId(), PageRequest.of(0, chunkSize));
+            try {
+                created += transactionTemplate.execute(status -> {
+                    int inserted = chunk.isEmpty() ? 0 : vaccineReminderRepository.insertAllIgnoringExisting(toReminders(chunk));
+                    if (!chunk.isEmpty()) {
+                        checkpoint.setLastId(chunk.get(chunk.size() - 1).getId());
+                    }
+                    checkpoint.setCompleted(chunk.size() < chunkSize);
+                    checkpoint.setUpdatedAt(LocalDateTime.now());
+                    checkpoint.setId(jobCheckpointRepository.saveAndFlush(checkpoint).getId());
+                    return inserted;
+                });
+            } catch (DataIntegrityViolationException e) {
+                // another node created the checkpoint of this partition first and scans it
+                break;
+            }
+            scanned += chunk.size();
+        }
+        return new int[] { scanned, created };
+    }
+
+    private static List<VaccineReminder> toReminders(List<ExpiringVaccine> vaccines) {
+        LocalDateTime now = LocalDateTime.now();
+        List<VaccineReminder> reminders = new ArrayList<>(vaccines.size());
+        for (ExpiringVaccine vaccine : vaccines) {
+            reminders.add(new VaccineReminder(null, vaccine.getId(), vaccine.getAnimalId(), vaccine.getName(), vaccine.getExpirationDate(), now));
+        }
+        return reminders;
+    }
+}
@@ -6,12 +6,21 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.veterinary.management.exceptions.PreconditionFailedException;
+import com.veterinary.management.exceptions.ConflictException;
+import com.veterinary.management.indexes.VaccineExpiryCache;
 import com.veterinary.management.models.Animal;
 import com.veterinary.management.models.Vaccine;
+import com.veterinary.management.repositories.CoverageRollupRepository;
+import com.veterinary.management.repositories.VaccinationDelta;
 import com.veterinary.management.repositories.VaccineRepository;
+import com.veterinary.management.requests.PageParams;
 import com.veterinary.management.requests.VaccineRequest;
+import com.veterinary.management.responses.VaccineResponse;
 
 @Service
 @RequiredArgsConstructor
@@ -19,12 +28,22 @@ public class VaccineService {
 
     private final VaccineRepository vaccineRepository;
     private final AnimalService animalService;
+    private final VaccineExpiryCache vaccineExpiryCache;
+    private final CoverageRollupRepository coverageRollupRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxService outboxService;
 
     /*
-     * This method returns all vaccines
+     * This method returns one page of the vaccines, sorted by id
+     * @param PageParams pageParams
+     * @return List<VaccineResponse>
+     * 
      */
-    public List<Vaccine> getAllVaccines() {
-        return vaccineRepository.findAll();
+    public List<VaccineResponse> getAllVaccines(PageParams pageParams) {
+        if (pageParams.descending()) {
+            return vaccineRepository.findResponsesByIdLessThan(pageParams.start(), pageParams.toPageable());
+        }
+        return vaccineRepository.findResponsesByIdGreaterThan(pageParams.start(), pageParams.toPageable());
     }
 
     /*
@@ -41,6 +60,32 @@ public class VaccineService {
         return vaccineRepository.findById(id).orElse(null);
     }
 
+    /*
+     * This method returns the versions of a vaccine and of its animal and the animal's owner, the entity tag of its GET endpoint
+     * @param Long id
+     * @return String the joined versions, null if there is no vaccine with the given id
+     */
+    public String getVaccineVersions(Long id) {
+        if (id == null) {
+            return null;
+        }
+        return vaccineRepository.findVersionsById(id).orElse(null);
+    }
+
+    /*
+     * This method returns the vaccines of an animal together with the animal and its owner, in a single query
+     * @param Long animalId
+     * @return List<Vaccine>
+     * 
+     */
+    public List<Vaccine> getVaccinesByAnimalId(Long animalId) {
+        if (animalId == null) {
+            throw new IllegalArgumentException("Id cannot be null");
+        }
+
+        return vaccineRepository.findWithAnimalByAnimalId(animalId);
+    }
+
     /*
      * This method adds a vaccine
      * @param VaccineRequest vaccineRequest
@@ -66,26 +111,32 @@ public class VaccineService {
         /*Check if the animal is already vaccinated with the same vaccine and if the expiration date is not passed
          * Değerlendirme Formu: 22
          */
-        List<Vaccine> vaccines = animal.getVaccines();
-        for (Vaccine v : vaccines) {
-            if (v.getName().equals(vaccine.getName()) && v.getExpirationDate().isAfter(vaccine.getApplicationDate())) {
-                throw new UnsupportedOperationException("The animal is already vaccinated with the same vaccine and the expiration date is not passed");
-            }
+        if (hasUnexpiredVaccine(animal.getId(), vaccine.getName(), vaccine.getApplicationDate(), null)) {
+            throw new UnsupportedOperationException("The animal is already vaccinated with the same vaccine and the expiration date is not passed");
         }
 
         vaccine.setAnimal(animal);
 
-        return vaccineRepository.save(vaccine);
+        Vaccine savedVaccine = transactionTemplate.execute(status -> {
+            Vaccine saved = vaccineRepository.save(vaccine);
+            coverageRollupRepository.addVaccinations(List.of(
+                    new VaccinationDelta(animal.getId(), saved.getName(), saved.getApplicationDate(), 1)));
+            outboxService.vaccineRecorded(saved);
+            return saved;
+        });
+        vaccineExpiryCache.add(animal.getId(), savedVaccine.getName(), savedVaccine.getExpirationDate());
+        return savedVaccine;
     }
 
     /*
      * This method updates a vaccine
      * @param Long id
      * @param VaccineRequest vaccineRequest
+     * @param Long expectedVersion the version of the If-Match header, null to skip the check
      * @return Vaccine
      * 
      */
-    public Vaccine updateVaccine(Long id, VaccineRequest vaccineRequest) {
+    public Vaccine updateVaccine(Long id, VaccineRequest vaccineRequest, Long expectedVersion) {
         if (id == null) {
             throw new IllegalArgumentException("Id cannot be null");
         }
@@ -95,6 +146,15 @@ public class VaccineService {
         }
 
         Vaccine vaccine = vaccineRepository.findById(id).orElse(null);
+        if (vaccine == null) {
+            throw new UnsupportedOperationException("Vaccine with id " + id + " not found");
+        }
+        if (expectedVersion != null && !expectedVersion.equals(vaccine.getVersion())) {
+            throw new PreconditionFailedException("Vaccine " + id + " is at version " + vaccine.getVersion());
+        }
+        //The vaccination is moved in the rollups from its old animal, name and month to the new ones
+        VaccinationDelta removed = new VaccinationDelta(vaccine.getAnimal() == null ? null : vaccine.getAnimal().getId(),
+                vaccine.getName(), vaccine.getApplicationDate(), -1);
         vaccine.setName(vaccineRequest.getName());
         vaccine.setApplicationDate(vaccineRequest.getApplicationDate());
         vaccine.setExpirationDate(vaccineRequest.getExpirationDate());
@@ -105,9 +165,28 @@ public class VaccineService {
             throw new UnsupportedOperationException("Animal with id " + vaccineRequest.getAnimalId() + " not found");
         }
 
+        if (hasUnexpiredVaccine(animal.getId(), vaccine.getName(), vaccine.getApplicationDate(), id)) {
+            throw new UnsupportedOperationException("The animal is already vaccinated with the same vaccine and the expiration date is not passed");
+        }
+
+        Long oldAnimalId = removed.animalId();
         vaccine.setAnimal(animal);
 
-        return vaccineRepository.save(vaccine);
+        Vaccine savedVaccine;
+        try {
+            savedVaccine = transactionTemplate.execute(status -> {
+                Vaccine saved = vaccineRepository.save(vaccine);
+                coverageRollupRepository.addVaccinations(List.of(removed,
+                        new VaccinationDelta(animal.getId(), saved.getName(), saved.getApplicationDate(), 1)));
+                return saved;
+            });
+        } catch (OptimisticLockingFailureException e) {
+            throw new ConflictException("Vaccine " + id + " was modified by another request");
+        }
+        //The latest expiry of the old name or animal may have gone down
+        vaccineExpiryCache.evict(oldAnimalId);
+        vaccineExpiryCache.evict(animal.getId());
+        return savedVaccine;
     }
 
     /*
@@ -120,18 +199,52 @@ public class VaccineService {
             throw new IllegalArgumentException("Id cannot be null");
         }
 
-        vaccineRepository.deleteById(id);
+        Vaccine vaccine = vaccineRepository.findById(id).orElse(null);
+        if (vaccine == null) {
+            return;
+        }
+        Long animalId = vaccine.getAnimal() == null ? null : vaccine.getAnimal().getId();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                coverageRollupRepository.addVaccinations(List.of(
+                        new VaccinationDelta(animalId, vaccine.getName(), vaccine.getApplicationDate(), -1)));
+                vaccineRepository.delete(vaccine);
+            });
+        } catch (OptimisticLockingFailureException e) {
+            throw new ConflictException("Vaccine " + id + " was modified by another request");
+        }
+        vaccineExpiryCache.evict(animalId);
+    }
+
+    /*
+     * This method returns true if the animal has a vaccine with the given name that expires after the given date.
+     * It is a single probe of the (animal_id, name, expiration_date) index, or a lookup in the expiry cache when it is enabled.
+     * @param Long animalId
+     * @param String name
+     * @param LocalDate applicationDate
+     * @param Long excludedId the vaccine being updated, null when adding
+     * @return boolean
+     */
+    private boolean hasUnexpiredVaccine(Long animalId, String name, LocalDate applicationDate, Long excludedId) {
+        if (excludedId != null) {
+            //The cache holds one date per name and cannot leave the updated vaccine out
+            return vaccineRepository.existsByAnimalIdAndNameAndExpirationDateAfterAndIdNot(animalId, name, applicationDate, excludedId);
+        }
+        if (vaccineExpiryCache.isEnabled()) {
+            return vaccineExpiryCache.hasVaccineExpiringAfter(animalId, name, applicationDate);
+        }
+        return vaccineRepository.existsByAnimalIdAndNameAndExpirationDateAfter(animalId, name, applicationDate);
     }
 
     /*
      * This method returns all vaccines by application date range
      * @param LocalDateTime startDate
      * @param LocalDateTime endDate
-     * @return List<Vaccine>
+     * @return List<VaccineResponse>
      * 
      */
-    public List<Vaccine> findVaccinesByApplicationDateBetween(LocalDate startDate, LocalDate endDate) {
-        return vaccineRepository.findVaccinesByApplicationDateBetween(startDate, endDate);
+    public List<VaccineResponse> findVaccinesByApplicationDateBetween(LocalDate startDate, LocalDate endDate) {
+        return vaccineRepository.findResponsesByApplicationDateBetween(startDate, endDate);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.veterinary.management.utils;
+
+import java.sql.SQLException;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.postgresql.util.PSQLException;
+import org.postgresql.util.ServerErrorMessage;
+import org.springframework.dao.DataIntegrityViolationException;
+
+/*
+ * This class tells which database constraint a failed write violated,
+ * so a unique constraint that guards a business rule can be answered differently from any other failure.
+ */
+public final class Constraints {
+
+    private Constraints() {
+    }
+
+    /*
+     * This method returns true if the exception was raised by the constraint with the given name.
+     * Writes through Hibernate carry the name in its ConstraintViolationException,
+     * JDBC batches in the PSQLException chained to the BatchUpdateException.
+     * @param DataIntegrityViolationException exception
+     * @param String constraintName
+     * @return boolean
+     */
+    public static boolean isViolated(DataIntegrityViolationException exception, String constraintName) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && constraintName.equalsIgnoreCase(violation.getConstraintName())) {
+                return true;
+            }
+            if (cause instanceof SQLException sqlException) {
+                for (SQLException next = sqlException; next != null; next = next.getNextException()) {
+                    if (next instanceof PSQLException psqlException) {
+                        ServerErrorMessage message = psqlException.getServerErrorMessage();
+                        if (message != null && constraintName.equalsIgnoreCase(message.getConstraint())) {
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+}
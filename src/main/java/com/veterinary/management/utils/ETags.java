@@ -0,0 +1,131 @@
+package com.veterinary.management.utils;
+
+import java.util.function.Function;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.veterinary.management.exceptions.PreconditionFailedException;
+
+/*
+ * This class converts between entity versions and the entity tags of the HTTP headers.
+ * The tag of a body is the versions of every entity in it, its own first and then the parents it embeds,
+ * joined by dashes and quoted, such as "3-1-7". It changes on every update of any of them.
+ * A partial body of the fields= parameter adds a hash of its fields, so it never shares a tag with the full body.
+ * Tagged responses are sent with Cache-Control no-cache, caches keep them but revalidate them with the tag on every use.
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    /*
+     * This method joins the versions of a body, its own first, a missing version counts as 0
+     * @param Long... versions
+     * @return String such as 3-1-7, null if there are no versions
+     */
+    public static String versions(Long... versions) {
+        if (versions == null || versions.length == 0 || versions[0] == null) {
+            return null;
+        }
+        StringBuilder joined = new StringBuilder();
+        for (Long version : versions) {
+            if (joined.length() > 0) {
+                joined.append('-');
+            }
+            joined.append(version == null ? 0 : version);
+        }
+        return joined.toString();
+    }
+
+    /*
+     * This method adds the representation of a partial body to its versions
+     * @param String versions
+     * @param String representation the hash of the selected fields, null for the full body
+     * @return String such as 3-1-f5e2a09c1, null if there are no versions
+     */
+    public static String withRepresentation(String versions, String representation) {
+        if (versions == null || representation == null) {
+            return versions;
+        }
+        return versions + "-" + representation;
+    }
+
+    /*
+     * This method returns the entity tag of the joined versions of a body
+     * @param String versions
+     * @return String
+     */
+    public static String of(String versions) {
+        return "\"" + (versions == null ? "0" : versions) + "\"";
+    }
+
+    /*
+     * This method checks the If-None-Match header against the current versions, comparing weakly
+     * @param String ifNoneMatch the header value, may be null
+     * @param String versions the current joined versions, null if there is no such entity
+     * @return boolean true if the client already has the current versions
+     */
+    public static boolean matches(String ifNoneMatch, String versions) {
+        if (versions == null || ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        String etag = of(versions);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * This method returns the own version an If-Match header expects, the versions of embedded parents are ignored
+     * @param String ifMatch the header value, may be null
+     * @return Long the expected version, null if the header is missing or "*"
+     * throws PreconditionFailedException if the header is not a tag of this application, it can never match
+     */
+    public static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                String versions = tag.substring(1, tag.length() - 1);
+                int dash = versions.indexOf('-');
+                return Long.parseLong(dash < 0 ? versions : versions.substring(0, dash));
+            } catch (NumberFormatException e) {
+                // not one of our tags, falls through
+            }
+        }
+        throw new PreconditionFailedException("If-Match " + ifMatch + " does not match the current version");
+    }
+
+    /*
+     * This method returns a 304 response carrying the tag of the versions, without a body
+     * @param String versions
+     * @return ResponseEntity<T>
+     */
+    public static <T> ResponseEntity<T> notModified(String versions) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(of(versions)).cacheControl(CacheControl.noCache()).build();
+    }
+
+    /*
+     * This method returns a 200 response with the body, tagged with its versions when there is one
+     * @param T body
+     * @param Function<T, String> versions
+     * @return ResponseEntity<T>
+     */
+    public static <T> ResponseEntity<T> ok(T body, Function<T, String> versions) {
+        if (body == null) {
+            return ResponseEntity.ok(null);
+        }
+        return ResponseEntity.ok().eTag(of(versions.apply(body))).cacheControl(CacheControl.noCache()).body(body);
+    }
+}
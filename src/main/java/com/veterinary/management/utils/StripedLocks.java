@@ -0,0 +1,89 @@
+package com.veterinary.management.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/*
+ * This class holds a fixed number of locks and maps every key to one of them.
+ * Work for the same key is serialized while work for different keys rarely contends,
+ * and memory stays constant however many keys there are.
+ */
+public class StripedLocks {
+
+    private final ReentrantLock[] locks;
+    private final int mask;
+
+    /*
+     * @param int stripes the number of locks, rounded up to a power of two
+     */
+    public StripedLocks(int stripes) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Stripes must be positive");
+        }
+        int size = Integer.highestOneBit(stripes);
+        if (size < stripes) {
+            size <<= 1;
+        }
+        this.locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    /*
+     * This method runs the action while holding the lock of the key
+     * @param Object key
+     * @param Supplier<T> action
+     * @return the result of the action
+     */
+    public <T> T withLock(Object key, Supplier<T> action) {
+        ReentrantLock lock = lockFor(key);
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*
+     * This method runs the action while holding the locks of all the keys.
+     * The locks are taken in stripe order so two callers with overlapping keys cannot deadlock.
+     * @param Collection<?> keys
+     * @param Supplier<T> action
+     * @return the result of the action
+     */
+    public <T> T withLocks(Collection<?> keys, Supplier<T> action) {
+        TreeSet<Integer> stripes = new TreeSet<>();
+        for (Object key : keys) {
+            stripes.add(stripeOf(key));
+        }
+        List<ReentrantLock> held = new ArrayList<>(stripes.size());
+        try {
+            for (Integer stripe : stripes) {
+                locks[stripe].lock();
+                held.add(locks[stripe]);
+            }
+            return action.get();
+        } finally {
+            for (int i = held.size() - 1; i >= 0; i--) {
+                held.get(i).unlock();
+            }
+        }
+    }
+
+    private int stripeOf(Object key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return hash & mask;
+    }
+
+    private ReentrantLock lockFor(Object key) {
+        return locks[stripeOf(key)];
+    }
+}
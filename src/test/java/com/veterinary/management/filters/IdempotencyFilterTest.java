@@ -0,0 +1,152 @@
+package com.veterinary.management.filters;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+
+class IdempotencyFilterTest {
+
+    private final IdempotencyFilter filter = new IdempotencyFilter(DataSize.ofMegabytes(1), Duration.ofMinutes(1),
+            DataSize.ofKilobytes(64), Duration.ofSeconds(10));
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    void replaysTheStoredResponse() throws Exception {
+        FilterChain created = created("/api/customers/1");
+
+        MockHttpServletResponse first = send(request("key-1", "{\"name\":\"Ayşe\"}"), created);
+        MockHttpServletResponse retry = send(request("key-1", "{\"name\":\"Ayşe\"}"), created);
+
+        assertThat(calls).hasValue(1);
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getContentAsString()).isEqualTo(first.getContentAsString());
+        assertThat(retry.getHeader(HttpHeaders.LOCATION)).isEqualTo("/api/customers/1");
+        assertThat(retry.getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED)).isEqualTo("true");
+        assertThat(first.getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED)).isNull();
+    }
+
+    @Test
+    void concurrentRequestsWithTheSameKeyRunOnce() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slow = (request, response) -> {
+            calls.incrementAndGet();
+            started.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            ((HttpServletResponse) response).setStatus(201);
+            response.getWriter().write("{\"id\":1}");
+        };
+
+        MockHttpServletResponse firstResponse = new MockHttpServletResponse();
+        Thread first = new Thread(() -> run(request("key-2", "{}"), firstResponse, slow));
+        first.start();
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+
+        MockHttpServletResponse secondResponse = new MockHttpServletResponse();
+        Thread second = new Thread(() -> run(request("key-2", "{}"), secondResponse, slow));
+        second.start();
+        // the second request waits for the response of the first one
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (second.getState() != Thread.State.TIMED_WAITING && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+        first.join(10_000);
+        second.join(10_000);
+
+        assertThat(calls).hasValue(1);
+        assertThat(firstResponse.getStatus()).isEqualTo(201);
+        assertThat(secondResponse.getStatus()).isEqualTo(201);
+        assertThat(secondResponse.getContentAsString()).isEqualTo("{\"id\":1}");
+        assertThat(secondResponse.getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED)).isEqualTo("true");
+    }
+
+    @Test
+    void failedRequestReleasesTheKey() throws Exception {
+        FilterChain failing = (request, response) -> {
+            calls.incrementAndGet();
+            ((HttpServletResponse) response).setStatus(500);
+        };
+
+        MockHttpServletResponse failed = send(request("key-3", "{}"), failing);
+        MockHttpServletResponse retried = send(request("key-3", "{}"), created("/api/customers/2"));
+
+        assertThat(failed.getStatus()).isEqualTo(500);
+        assertThat(calls).hasValue(2);
+        assertThat(retried.getStatus()).isEqualTo(201);
+        assertThat(retried.getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED)).isNull();
+    }
+
+    @Test
+    void differentBodyWithTheSameKeyIsRefused() throws Exception {
+        FilterChain created = created("/api/customers/3");
+
+        send(request("key-4", "{\"name\":\"Ayşe\"}"), created);
+        MockHttpServletResponse reused = send(request("key-4", "{\"name\":\"Mehmet\"}"), created);
+
+        assertThat(calls).hasValue(1);
+        assertThat(reused.getStatus()).isEqualTo(422);
+    }
+
+    @Test
+    void requestsWithoutKeyAreNotStored() throws Exception {
+        FilterChain created = created("/api/customers/4");
+
+        send(request(null, "{}"), created);
+        send(request(null, "{}"), created);
+
+        assertThat(calls).hasValue(2);
+    }
+
+    private FilterChain created(String location) {
+        return (request, response) -> {
+            calls.incrementAndGet();
+            HttpServletResponse httpResponse = (HttpServletResponse) response;
+            httpResponse.setStatus(201);
+            httpResponse.setHeader(HttpHeaders.LOCATION, location);
+            httpResponse.setContentType("application/json");
+            httpResponse.getWriter().write("{\"call\":" + calls.get() + "}");
+        };
+    }
+
+    private static MockHttpServletRequest request(String key, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/customers");
+        if (key != null) {
+            request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY, key);
+        }
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private MockHttpServletResponse send(MockHttpServletRequest request, FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private void run(MockHttpServletRequest request, MockHttpServletResponse response, FilterChain chain) {
+        try {
+            filter.doFilter(request, response, chain);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
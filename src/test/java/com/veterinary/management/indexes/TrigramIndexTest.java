@@ -0,0 +1,79 @@
+package com.veterinary.management.indexes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class TrigramIndexTest {
+
+    private final TrigramIndex index = new TrigramIndex();
+
+    @Test
+    void normalizesCaseAndDiacritics() {
+        assertThat(TrigramIndex.normalize("İstanbul")).isEqualTo("istanbul");
+        assertThat(TrigramIndex.normalize("ISTANBUL")).isEqualTo("istanbul");
+        assertThat(TrigramIndex.normalize(" Ayşe Yılmaz ")).isEqualTo("ayse yilmaz");
+        assertThat(TrigramIndex.normalize(null)).isEmpty();
+    }
+
+    @Test
+    void ranksExactThenPrefixThenWordPrefixThenSubstring() {
+        index.put(4L, "Apamuk");
+        index.put(3L, "Kara Pamuk");
+        index.put(2L, "Pamuk Kara");
+        index.put(1L, "Pamuk");
+        index.put(5L, "Boncuk");
+
+        assertThat(index.search("pamuk", 10)).containsExactly(1L, 2L, 3L, 4L);
+    }
+
+    @Test
+    void matchesIgnoringCaseAndDiacritics() {
+        index.put(1L, "Ayşe Yılmaz");
+
+        assertThat(index.search("AYSE", 10)).containsExactly(1L);
+        assertThat(index.search("yilm", 10)).containsExactly(1L);
+    }
+
+    @Test
+    void shortQueriesScanAllNames() {
+        index.put(1L, "Pamuk");
+        index.put(2L, "Boncuk");
+
+        assertThat(index.search("pa", 10)).containsExactly(1L);
+        assertThat(index.search("u", 10)).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void returnsNothingForUnknownOrEmptyQueries() {
+        index.put(1L, "Pamuk");
+
+        assertThat(index.search("zeytin", 10)).isEmpty();
+        assertThat(index.search("  ", 10)).isEmpty();
+        assertThat(index.search("pamuk", 0)).isEmpty();
+    }
+
+    @Test
+    void appliesTheLimit() {
+        for (long id = 1; id <= 5; id++) {
+            index.put(id, "Pamuk " + id);
+        }
+
+        assertThat(index.search("pamuk", 2)).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void putReplacesAndRemoveDropsTheName() {
+        index.put(1L, "Pamuk");
+        index.put(1L, "Boncuk");
+        index.put(2L, "Karamel");
+
+        assertThat(index.search("pamuk", 10)).isEmpty();
+        assertThat(index.search("boncuk", 10)).containsExactly(1L);
+
+        index.remove(2L);
+
+        assertThat(index.search("karamel", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(1);
+    }
+}
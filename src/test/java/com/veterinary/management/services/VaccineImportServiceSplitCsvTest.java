@@ -0,0 +1,32 @@
+package com.veterinary.management.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class VaccineImportServiceSplitCsvTest {
+
+    @Test
+    void splitsOnCommas() {
+        assertThat(VaccineImportService.splitCsv("Rabies,2024-01-01,2025-01-01,7"))
+                .containsExactly("Rabies", "2024-01-01", "2025-01-01", "7");
+    }
+
+    @Test
+    void keepsCommasInsideQuotes() {
+        assertThat(VaccineImportService.splitCsv("\"Distemper, parvo\",2024-01-01"))
+                .containsExactly("Distemper, parvo", "2024-01-01");
+    }
+
+    @Test
+    void unescapesDoubledQuotes() {
+        assertThat(VaccineImportService.splitCsv("\"The \"\"big\"\" one\",1"))
+                .containsExactly("The \"big\" one", "1");
+    }
+
+    @Test
+    void keepsEmptyCells() {
+        assertThat(VaccineImportService.splitCsv(",a,,")).containsExactly("", "a", "", "");
+        assertThat(VaccineImportService.splitCsv("")).containsExactly("");
+    }
+}
@@ -0,0 +1,92 @@
+package com.veterinary.management.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.veterinary.management.exceptions.PreconditionFailedException;
+
+class ETagsTest {
+
+    @Test
+    void tagIsTheQuotedVersions() {
+        assertThat(ETags.of("3")).isEqualTo("\"3\"");
+        assertThat(ETags.of("3-1-7")).isEqualTo("\"3-1-7\"");
+        assertThat(ETags.of(null)).isEqualTo("\"0\"");
+    }
+
+    @Test
+    void versionsStartWithTheOwnVersion() {
+        assertThat(ETags.versions(3L)).isEqualTo("3");
+        assertThat(ETags.versions(3L, 1L, null)).isEqualTo("3-1-0");
+        assertThat(ETags.versions((Long) null)).isNull();
+        assertThat(ETags.versions()).isNull();
+    }
+
+    @Test
+    void partialBodiesHaveTheirOwnTag() {
+        assertThat(ETags.withRepresentation("3-1", "f5e2a09c1")).isEqualTo("3-1-f5e2a09c1");
+        assertThat(ETags.withRepresentation("3-1", null)).isEqualTo("3-1");
+        assertThat(ETags.withRepresentation(null, "f5e2a09c1")).isNull();
+        assertThat(ETags.matches("\"3-1\"", "3-1-f5e2a09c1")).isFalse();
+        assertThat(ETags.expectedVersion("\"3-1-f5e2a09c1\"")).isEqualTo(3L);
+    }
+
+    @Test
+    void ifNoneMatchComparesWeakly() {
+        assertThat(ETags.matches("\"3\"", "3")).isTrue();
+        assertThat(ETags.matches("W/\"3\"", "3")).isTrue();
+        assertThat(ETags.matches("\"1\", \"3\"", "3")).isTrue();
+        assertThat(ETags.matches("*", "3")).isTrue();
+        assertThat(ETags.matches("\"2\"", "3")).isFalse();
+    }
+
+    @Test
+    void ifNoneMatchFailsWhenAnEmbeddedParentChanged() {
+        assertThat(ETags.matches("\"3-1-7\"", "3-1-7")).isTrue();
+        assertThat(ETags.matches("\"3-1-7\"", "3-2-7")).isFalse();
+        assertThat(ETags.matches("\"3\"", "3-1")).isFalse();
+    }
+
+    @Test
+    void ifNoneMatchNeverMatchesAMissingEntityOrHeader() {
+        assertThat(ETags.matches("*", null)).isFalse();
+        assertThat(ETags.matches(null, "3")).isFalse();
+        assertThat(ETags.matches(" ", "3")).isFalse();
+    }
+
+    @Test
+    void ifMatchReturnsTheExpectedVersion() {
+        assertThat(ETags.expectedVersion("\"7\"")).isEqualTo(7L);
+        assertThat(ETags.expectedVersion(" \"7\" ")).isEqualTo(7L);
+        assertThat(ETags.expectedVersion("\"7-2-4\"")).isEqualTo(7L);
+        assertThat(ETags.expectedVersion(null)).isNull();
+        assertThat(ETags.expectedVersion("*")).isNull();
+    }
+
+    @Test
+    void ifMatchWithAForeignTagFails() {
+        assertThatThrownBy(() -> ETags.expectedVersion("\"abc\"")).isInstanceOf(PreconditionFailedException.class);
+        assertThatThrownBy(() -> ETags.expectedVersion("W/\"7\"")).isInstanceOf(PreconditionFailedException.class);
+        assertThatThrownBy(() -> ETags.expectedVersion("7")).isInstanceOf(PreconditionFailedException.class);
+    }
+
+    @Test
+    void responsesCarryTheTag() {
+        ResponseEntity<Object> notModified = ETags.notModified("5-2");
+        assertThat(notModified.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(notModified.getHeaders().getETag()).isEqualTo("\"5-2\"");
+        assertThat(notModified.getBody()).isNull();
+
+        ResponseEntity<String> ok = ETags.ok("body", body -> "5-2");
+        assertThat(ok.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(ok.getHeaders().getETag()).isEqualTo("\"5-2\"");
+        assertThat(ok.getHeaders().getCacheControl()).isEqualTo("no-cache");
+
+        ResponseEntity<String> missing = ETags.ok(null, body -> "5-2");
+        assertThat(missing.getHeaders().getETag()).isNull();
+    }
+}
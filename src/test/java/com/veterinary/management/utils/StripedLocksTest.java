@@ -0,0 +1,87 @@
+package com.veterinary.management.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class StripedLocksTest {
+
+    @Test
+    void rejectsNonPositiveStripes() {
+        assertThatThrownBy(() -> new StripedLocks(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void returnsTheResultOfTheAction() {
+        StripedLocks locks = new StripedLocks(4);
+
+        assertThat(locks.withLock(1L, () -> "booked")).isEqualTo("booked");
+        assertThat(locks.withLocks(List.of(1L, 2L), () -> 2)).isEqualTo(2);
+    }
+
+    @Test
+    void serializesWorkForTheSameKey() throws Exception {
+        StripedLocks locks = new StripedLocks(8);
+        int[] counter = new int[1];
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CompletableFuture<?>[] tasks = new CompletableFuture<?>[8];
+            for (int i = 0; i < tasks.length; i++) {
+                tasks[i] = CompletableFuture.runAsync(() -> {
+                    for (int j = 0; j < 10_000; j++) {
+                        locks.withLock(42L, () -> counter[0]++);
+                    }
+                }, executor);
+            }
+            CompletableFuture.allOf(tasks).get();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(counter[0]).isEqualTo(80_000);
+    }
+
+    @Test
+    void overlappingKeysInAnyOrderDoNotDeadlock() {
+        StripedLocks locks = new StripedLocks(64);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+                CompletableFuture<Void> forward = CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        locks.withLocks(List.of(1L, 2L, 3L), () -> null);
+                    }
+                }, executor);
+                CompletableFuture<Void> backward = CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        locks.withLocks(List.of(3L, 2L, 1L), () -> null);
+                    }
+                }, executor);
+                CompletableFuture.allOf(forward, backward).get();
+            });
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void releasesTheLocksWhenTheActionFails() throws Exception {
+        StripedLocks locks = new StripedLocks(4);
+
+        assertThatThrownBy(() -> locks.withLocks(List.of(1L, 2L), () -> {
+            throw new IllegalStateException("failed");
+        })).isInstanceOf(IllegalStateException.class);
+
+        // another thread could not take the locks if they were still held
+        assertThat(CompletableFuture.supplyAsync(() -> locks.withLocks(List.of(1L, 2L), () -> true)).get(10, TimeUnit.SECONDS)).isTrue();
+    }
+}